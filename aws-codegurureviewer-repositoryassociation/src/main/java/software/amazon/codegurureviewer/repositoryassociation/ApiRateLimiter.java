@@ -0,0 +1,90 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.AssociateRepositoryRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.DisassociateRepositoryRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.TagResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.UntagResourceRequest;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Paces the service calls of the whole container, so that stabilization polling, list pages and tag lookups slow
+ * down before the service throttles them. Describes, mutations (associate, disassociate, tag, untag) and lists each
+ * draw from their own {@link TokenBucket}. A category whose rate is zero is not limited.
+ */
+final class ApiRateLimiter {
+
+    private static final ConcurrentMap<List<Integer>, ApiRateLimiter> SHARED = new ConcurrentHashMap<>();
+
+    private final TokenBucket describeBucket;
+    private final TokenBucket mutateBucket;
+    private final TokenBucket listBucket;
+
+    ApiRateLimiter(final int describesPerSecond, final int mutationsPerSecond, final int listsPerSecond) {
+        this.describeBucket = newBucket(describesPerSecond);
+        this.mutateBucket = newBucket(mutationsPerSecond);
+        this.listBucket = newBucket(listsPerSecond);
+    }
+
+    /**
+     * @param settings rates of the limiter
+     * @return the limiter of the container for these rates, so every handler instance draws from the same buckets
+     */
+    static ApiRateLimiter shared(final HandlerSettings settings) {
+        return SHARED.computeIfAbsent(Arrays.asList(settings.getApiDescribeRequestsPerSecond(),
+                settings.getApiMutateRequestsPerSecond(), settings.getApiListRequestsPerSecond()),
+                rates -> new ApiRateLimiter(rates.get(0), rates.get(1), rates.get(2)));
+    }
+
+    /**
+     * @param proxyClient client to pace
+     * @param <ClientT>   client type
+     * @return a client whose calls first wait for their bucket, or the client itself if nothing is limited
+     */
+    <ClientT> ProxyClient<ClientT> wrap(final ProxyClient<ClientT> proxyClient) {
+        if (describeBucket == null && mutateBucket == null && listBucket == null) {
+            return proxyClient;
+        }
+        return new RateLimitedProxyClient<>(proxyClient, this);
+    }
+
+    /**
+     * Waits until the request may be sent.
+     *
+     * @param request request about to be sent
+     */
+    void acquire(final AwsRequest request) {
+        final TokenBucket bucket = bucketFor(request);
+        if (bucket != null) {
+            bucket.acquire();
+        }
+    }
+
+    TokenBucket bucketFor(final AwsRequest request) {
+        if (request instanceof DescribeRepositoryAssociationRequest) {
+            return describeBucket;
+        } else if (request instanceof AssociateRepositoryRequest
+                || request instanceof DisassociateRepositoryRequest
+                || request instanceof TagResourceRequest
+                || request instanceof UntagResourceRequest) {
+            return mutateBucket;
+        } else if (request instanceof ListRepositoryAssociationsRequest
+                || request instanceof ListTagsForResourceRequest) {
+            return listBucket;
+        }
+        return null;
+    }
+
+    private static TokenBucket newBucket(final int permitsPerSecond) {
+        // A second's worth of burst, so an idle container does not pay for the pacing of a busy one.
+        return permitsPerSecond > 0 ? new TokenBucket(permitsPerSecond, permitsPerSecond) : null;
+    }
+}
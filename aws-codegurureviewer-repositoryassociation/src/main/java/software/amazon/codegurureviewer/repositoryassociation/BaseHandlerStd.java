@@ -1,34 +1,71 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
-import software.amazon.awssdk.awscore.AwsRequest;
-import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClient;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
 import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
 import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
 import software.amazon.awssdk.services.codegurureviewer.model.NotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
 import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
 import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
 import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
 import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Delay;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.cloudformation.proxy.delay.Constant;
 
 import java.time.Duration;
+import java.util.function.Supplier;
 
 // Placeholder for the functionality that could be shared across Create/Read/Update/Delete/List Handlers
 
 public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
 
-    protected static final Constant BACKOFF_STRATEGY = Constant.of().timeout(Duration.ofMinutes(5L)).delay(Duration.ofSeconds(10L)).build();
+    /**
+     * Describes in flight in the container, by association ARN.
+     */
+    private static final SingleFlight<String, DescribeRepositoryAssociationResponse> DESCRIBES_IN_FLIGHT =
+            new SingleFlight<>();
+
+    protected final HandlerSettings settings;
+
+    /**
+     * Schedules between probes of an association in a transitional state.
+     */
+    private final StateDelays stateDelays;
+
+    /**
+     * Backoff between probes that failed with a transient error.
+     */
+    private final Delay transientErrorDelay;
+
+    protected BaseHandlerStd() {
+        this(HandlerSettings.fromEnvironment());
+    }
+
+    protected BaseHandlerStd(final HandlerSettings settings) {
+        this(settings, StabilizationDelay::forState, StabilizationDelay.forTransientErrors());
+    }
+
+    protected BaseHandlerStd(
+            final HandlerSettings settings,
+            final StateDelays stateDelays,
+            final Delay transientErrorDelay) {
+        this.settings = settings;
+        this.stateDelays = stateDelays;
+        this.transientErrorDelay = transientErrorDelay;
+    }
 
     @Override
     public final ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -36,13 +73,33 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
-        return handleRequest(
-                proxy,
-                request,
-                callbackContext != null ? callbackContext : new CallbackContext(),
-                proxy.newProxy(CodeGuruReviewerClientBuilder::getClient),
-                logger
-        );
+        final String region = CodeGuruReviewerClientBuilder.regionOf(request);
+        final CallbackContext context = callbackContext != null ? callbackContext : new CallbackContext();
+        try {
+            return handleRequest(
+                    proxy,
+                    request,
+                    context,
+                    ApiRateLimiter.shared(settings).wrap(proxy.newProxy(
+                            () -> CodeGuruReviewerClientBuilder.getClient(region))),
+                    logger
+            );
+        } catch (final CircuitOpenException e) {
+            if (!waitsOutOpenCircuit()) {
+                throw e;
+            }
+            logger.log(String.format("%s: %s", ResourceModel.TYPE_NAME, e.getMessage()));
+            return ProgressEvent.defaultInProgressHandler(context, e.getRetryAfterSeconds(),
+                    request.getDesiredResourceState());
+        }
+    }
+
+    /**
+     * @return true if the handler may return IN_PROGRESS, and so can wait out an open circuit with a callback
+     * instead of failing
+     */
+    protected boolean waitsOutOpenCircuit() {
+        return false;
     }
 
     protected abstract ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -52,15 +109,46 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final ProxyClient<CodeGuruReviewerClient> proxyClient,
             final Logger logger);
 
+    /**
+     * @param proxy   proxy of the invocation
+     * @param request handler request, which decides the region
+     * @return a client for calls that should overlap, carrying the same credentials as the synchronous one
+     */
+    protected ProxyClient<CodeGuruReviewerAsyncClient> newAsyncProxyClient(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request) {
+        return ApiRateLimiter.shared(settings).wrap(proxy.newProxy(() -> CodeGuruReviewerAsyncClientBuilder.getClient(
+                CodeGuruReviewerClientBuilder.regionOf(request))));
+    }
+
+    /**
+     * Describes the association through the circuit breaker of the region, so a regional outage stops the calls.
+     *
+     * @param describeRepositoryAssociationRequest the aws service request to describe the association
+     * @param proxyClient                          the aws service client to make the call
+     * @param model                                resource model
+     * @param region                               region the client calls, see
+     *                                             {@link CodeGuruReviewerClientBuilder#regionOf(ResourceHandlerRequest)}
+     * @param logger                               logger of the invocation
+     * @return describe resource response
+     */
     protected DescribeRepositoryAssociationResponse describeRepositoryAssociation(
             final DescribeRepositoryAssociationRequest describeRepositoryAssociationRequest,
             final ProxyClient<CodeGuruReviewerClient> proxyClient,
-            final ResourceModel model) {
+            final ResourceModel model,
+            final String region,
+            final Logger logger) {
         DescribeRepositoryAssociationResponse awsResponse = null;
 
+        final CircuitBreaker circuitBreaker = CircuitBreaker.forRegion(region, settings);
+        final RequestHedger hedger = RequestHedger.forRegion(region, settings);
+        final Supplier<DescribeRepositoryAssociationResponse> describe = () -> circuitBreaker.call(() ->
+                hedger.call(() -> proxyClient.injectCredentialsAndInvokeV2(describeRepositoryAssociationRequest,
+                        proxyClient.client()::describeRepositoryAssociation), logger), logger);
         try {
-            awsResponse = proxyClient.injectCredentialsAndInvokeV2(describeRepositoryAssociationRequest,
-                    proxyClient.client()::describeRepositoryAssociation);
+            awsResponse = settings.isCoalesceDescribes() && describeRepositoryAssociationRequest.associationArn() != null
+                    ? DESCRIBES_IN_FLIGHT.execute(describeRepositoryAssociationRequest.associationArn(), describe)
+                    : describe.get();
         } catch (final NotFoundException e) {
             throw new CfnNotFoundException(ResourceModel.TYPE_NAME, model.getName(), e);
         } catch (final InternalServerException e) {
@@ -76,12 +164,218 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
         return awsResponse;
     }
 
-    protected boolean stabilizeOnHandle(
-            final AwsRequest awsRequest,
-            final AwsResponse awsResponse,
-            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+    /**
+     * Waits for the association to stabilize. Waits up to {@link HandlerSettings#getInProcessPollThreshold()} are
+     * spent polling in-process while they fit in the invocation budget; longer waits return IN_PROGRESS with a
+     * callbackDelaySeconds, and the next invocation continues from the progress kept in the callback context.
+     *
+     * @param progress event of the previous step
+     * @param probe    probe of the invocation, asked until it reports the association stable
+     * @param delay    delay schedule between stabilization attempts
+     * @param logger   logger
+     * @return progressEvent indicating stabilized or in progress with delay callback
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> waitForStabilization(
+            final ProgressEvent<ResourceModel, CallbackContext> progress,
+            final StabilizationProbe probe,
+            final Delay delay,
+            final Logger logger) {
+        final ResourceModel model = progress.getResourceModel();
+        final CallbackContext callbackContext = progress.getCallbackContext();
+        final long invocationDeadline = System.currentTimeMillis()
+                + settings.getInProcessStabilizationBudget().toMillis();
+        if (callbackContext.getStabilizationStartTime() == 0L) {
+            callbackContext.setStabilizationStartTime(System.currentTimeMillis());
+        }
+
+        while (true) {
+            Duration nextDelay = null;
+            try {
+                if (probe.isStabilized(model, callbackContext)) {
+                    return ProgressEvent.progress(model, callbackContext);
+                }
+            } catch (final CircuitOpenException e) {
+                logger.log(String.format("%s [%s] not probed: %s", ResourceModel.TYPE_NAME,
+                        model.getAssociationArn(), e.getMessage()));
+                return ProgressEvent.defaultInProgressHandler(callbackContext, e.getRetryAfterSeconds(), model);
+            } catch (final RuntimeException e) {
+                nextDelay = absorbTransientError(e, model, callbackContext, logger);
+            }
+            final long elapsed = System.currentTimeMillis() - callbackContext.getStabilizationStartTime();
+            if (nextDelay == null) {
+                final int attempt = callbackContext.getStabilizationAttempts() + 1;
+                callbackContext.setStabilizationAttempts(attempt);
+                nextDelay = delay.nextDelay(attempt);
+                if (nextDelay.isZero()) {
+                    logger.log(String.format("%s [%s] did not stabilize after %d attempts in %d ms, first observed state %s",
+                            ResourceModel.TYPE_NAME, model.getAssociationArn(), attempt, elapsed,
+                            callbackContext.getFirstObservedState()));
+                    throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, model.getAssociationArn());
+                }
+            }
+            if (nextDelay.compareTo(settings.getInProcessPollThreshold()) > 0
+                    || System.currentTimeMillis() + nextDelay.toMillis() > invocationDeadline) {
+                logger.log(String.format("%s [%s] not stabilized after %d attempts in %d ms, calling back in %d seconds",
+                        ResourceModel.TYPE_NAME, model.getAssociationArn(), callbackContext.getStabilizationAttempts(),
+                        elapsed, nextDelay.getSeconds()));
+                return ProgressEvent.defaultInProgressHandler(callbackContext, (int) nextDelay.getSeconds(), model);
+            }
+            sleep(nextDelay);
+        }
+    }
+
+    /**
+     * @param state   the transitional state being waited on
+     * @param model   resource model, whose provider type may pick a slower schedule
+     * @param timeout total time to wait before giving up
+     * @return delay schedule between stabilization attempts
+     */
+    protected Delay stateDelay(
+            final RepositoryAssociationState state,
+            final ResourceModel model,
+            final Duration timeout) {
+        return stateDelays.forState(state, getProviderType(model), timeout);
+    }
+
+    /**
+     * Lets a stabilization ride out throttling and internal errors of its probes, up to
+     * {@link HandlerSettings#getTransientErrorBudget()} of them. They are retried on their own backoff, so they do not
+     * use up the attempts of the state schedule.
+     *
+     * @param e               error raised by the probe
+     * @param model           resource model
+     * @param callbackContext callback context
+     * @param logger          logger
+     * @return the delay before probing again
+     */
+    private Duration absorbTransientError(
+            final RuntimeException e,
+            final ResourceModel model,
+            final CallbackContext callbackContext,
+            final Logger logger) {
+        final int errors = callbackContext.getTransientErrorCount() + 1;
+        if (!ErrorClassifier.isTransient(e) || errors > settings.getTransientErrorBudget()) {
+            throw e;
+        }
+        callbackContext.setTransientErrorCount(errors);
+        logger.log(String.format("%s [%s] transient error %d of %d while stabilizing: %s",
+                ResourceModel.TYPE_NAME, model.getAssociationArn(), errors, settings.getTransientErrorBudget(),
+                e.getMessage()));
+        return transientErrorDelay.nextDelay(errors);
+    }
+
+    /**
+     * If your resource requires some form of stabilization (e.g. service does not provide strong consistency), you
+     * will need to ensure that your code accounts for any potential issues. Handler instances are reused across
+     * invocations, so a probe keeps whatever it learns in the invocation's locals or in the callback context, never
+     * in handler fields.
+     */
+    @FunctionalInterface
+    protected interface StabilizationProbe {
+        /**
+         * @param model           resource model
+         * @param callbackContext callback context
+         * @return boolean state of stabilized or not
+         */
+        boolean isStabilized(ResourceModel model, CallbackContext callbackContext);
+    }
+
+    /**
+     * Picks the delay schedule for waiting on a transitional state, see
+     * {@link StabilizationDelay#forState(RepositoryAssociationState, ProviderType, Duration)}.
+     */
+    @FunctionalInterface
+    protected interface StateDelays {
+        /**
+         * @param state        the transitional state being waited on
+         * @param providerType the provider type of the association, may be null
+         * @param timeout      total time to wait before giving up
+         * @return delay schedule
+         */
+        Delay forState(RepositoryAssociationState state, ProviderType providerType, Duration timeout);
+    }
+
+    /**
+     * Asks the batched sweep, when enabled, whether the association is still in the state being waited on, so the
+     * probe can skip its describe. Any doubt, including a failed sweep, answers false and the caller describes.
+     *
+     * @param waitingState    transitional state the stabilization waits to leave
+     * @param model           resource model
+     * @param proxyClient     the aws service client to make the call
+     * @param callbackContext callback context
+     * @param region          region the client calls
+     * @return true if the association is still in the state
+     */
+    protected boolean sweptStillIn(
+            final RepositoryAssociationState waitingState,
             final ResourceModel model,
-            final CallbackContext callbackContext) {
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final CallbackContext callbackContext,
+            final String region) {
+        if (!settings.isBatchStabilizationPolling() || model.getAssociationArn() == null) {
+            return false;
+        }
+        final RepositoryAssociationState state;
+        try {
+            state = batchStatePoller(region).transitionalStateOf(model.getAssociationArn(), proxyClient);
+        } catch (final RuntimeException e) {
+            return false;
+        }
+        if (waitingState != state) {
+            return false;
+        }
+        recordObservedState(callbackContext, state);
         return true;
-    };
+    }
+
+    /**
+     * @param region region the client calls
+     * @return the poller whose sweeps answer {@link #sweptStillIn}, shared by the container
+     */
+    protected BatchStatePoller batchStatePoller(final String region) {
+        return BatchStatePoller.shared(region, settings);
+    }
+
+    /**
+     * Drops the cached read of an association that is being changed.
+     *
+     * @param model resource model, may be null
+     */
+    protected void invalidateReadCache(final ResourceModel model) {
+        if (model != null) {
+            ReadModelCache.shared(settings).invalidate(model.getAssociationArn());
+        }
+    }
+
+    /**
+     * Remembers the first state seen while stabilizing, so it can be reported however many invocations the
+     * stabilization spans.
+     *
+     * @param callbackContext callback context
+     * @param state           observed association state
+     */
+    protected static void recordObservedState(
+            final CallbackContext callbackContext,
+            final RepositoryAssociationState state) {
+        if (callbackContext.getFirstObservedState() == null && state != null) {
+            callbackContext.setFirstObservedState(state.toString());
+        }
+    }
+
+    private static void sleep(final Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CfnInternalFailureException(e);
+        }
+    }
+
+    /**
+     * @param model resource model
+     * @return the provider type of the model, or null when the model does not carry one (e.g. on delete)
+     */
+    protected static ProviderType getProviderType(final ResourceModel model) {
+        return ProviderType.fromValue(model.getType());
+    }
 }
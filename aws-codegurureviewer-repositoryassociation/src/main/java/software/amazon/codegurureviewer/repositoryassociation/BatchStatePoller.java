@@ -0,0 +1,101 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves the states of all associations stabilizing in the container with one sweep of
+ * ListRepositoryAssociations filtered on ASSOCIATING and DISASSOCIATING, instead of one describe per association.
+ * Concurrent callers share the sweep in flight, and a sweep is reused by later callers for
+ * {@link HandlerSettings#getBatchSweepMaxAge()}.
+ * <p>
+ * A sweep only lists the associations of the caller's account that are still in a transitional state. One that is
+ * missing has settled, was created after the sweep or belongs to another account, so callers describe it to learn
+ * which; the final state is therefore always read directly.
+ * <p>
+ * A sweep reads at most {@link #MAX_SWEEP_PAGES} pages, so an account with more transitional associations than that
+ * cannot stall every probe behind a long listing. Associations past the last page read are missing from the sweep
+ * and fall back to describe like any other missing association.
+ */
+final class BatchStatePoller {
+
+    static final int MAX_SWEEP_PAGES = 5;
+
+    private static final ConcurrentMap<List<Object>, BatchStatePoller> SHARED = new ConcurrentHashMap<>();
+
+    private final Duration maxAge;
+    private final LongSupplier clock;
+    private final SingleFlight<Boolean, Sweep> sweeps = new SingleFlight<>();
+    private volatile Sweep lastSweep;
+
+    BatchStatePoller(final Duration maxAge, final LongSupplier clock) {
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    /**
+     * @param region   region the sweep lists, empty for the region of the environment
+     * @param settings how long a sweep may be reused
+     * @return the poller of the region, shared by the container
+     */
+    static BatchStatePoller shared(final String region, final HandlerSettings settings) {
+        return SHARED.computeIfAbsent(Arrays.asList(region, settings.getBatchSweepMaxAge()),
+                key -> new BatchStatePoller(settings.getBatchSweepMaxAge(), System::currentTimeMillis));
+    }
+
+    /**
+     * @param associationArn association waited on
+     * @param proxyClient    the aws service client to sweep with, if no recent sweep can be reused
+     * @return the transitional state the association was listed in, or null if it was not listed
+     */
+    RepositoryAssociationState transitionalStateOf(
+            final String associationArn,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient) {
+        Sweep sweep = lastSweep;
+        if (sweep == null || clock.getAsLong() - sweep.startedAt > maxAge.toMillis()) {
+            sweep = sweeps.execute(Boolean.TRUE, () -> sweep(proxyClient));
+            lastSweep = sweep;
+        }
+        return sweep.states.get(associationArn);
+    }
+
+    private Sweep sweep(final ProxyClient<CodeGuruReviewerClient> proxyClient) {
+        final long startedAt = clock.getAsLong();
+        final Map<String, RepositoryAssociationState> states = new HashMap<>();
+        String nextToken = null;
+        int pages = 0;
+        do {
+            final ListRepositoryAssociationsResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                    Translator.translateToListTransitionalAssociationsRequest(nextToken),
+                    proxyClient.client()::listRepositoryAssociations);
+            for (final RepositoryAssociationSummary summary : awsResponse.repositoryAssociationSummaries()) {
+                states.put(summary.associationArn(), summary.state());
+            }
+            nextToken = awsResponse.nextToken();
+        } while (nextToken != null && ++pages < MAX_SWEEP_PAGES);
+        return new Sweep(startedAt, Collections.unmodifiableMap(states));
+    }
+
+    private static final class Sweep {
+        private final long startedAt;
+        private final Map<String, RepositoryAssociationState> states;
+
+        private Sweep(final long startedAt, final Map<String, RepositoryAssociationState> states) {
+            this.startedAt = startedAt;
+            this.states = states;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.NotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reads many associations at once for drift checks. The associations are first looked up in
+ * ListRepositoryAssociations pages, and an association is only described when it is missing from them or its summary
+ * differs from the association the reader described last time. Otherwise the earlier describe is translated again.
+ * <p>
+ * A summary does not carry tags, so the tags of an association that is not described again are read with
+ * ListTagsForResource, paced like the tags of {@link ListHandler}. Once the reader has seen every association, a scan
+ * therefore saves the describes but still costs one ListTagsForResource per association, on top of the list pages.
+ * The pages are read until every association asked for has been found, so asking for an association that no longer
+ * exists pages through every association of the account. One found gone while its tags are read is left out like
+ * one that could not be described. The reader keeps the last describe of at most
+ * {@link #MAX_BASELINES} associations, the least recently read evicted first, and describes an association again once
+ * its describe is older than {@link #BASELINE_MAX_AGE}.
+ * <p>
+ * Keep one reader for the whole scan, and across scans, so later reads can reuse its describes:
+ * <pre>
+ * final BulkAssociationReader reader = new BulkAssociationReader();
+ * final Map&lt;String, ResourceModel&gt; models = reader.read(proxy, "us-west-2", associationArns, logger);
+ * </pre>
+ * The reader is configured from the same environment variables as the handlers, and is safe to share between threads.
+ */
+public final class BulkAssociationReader {
+
+    static final int MAX_BASELINES = 10_000;
+    static final Duration BASELINE_MAX_AGE = Duration.ofHours(1L);
+
+    private static final int PAGE_SIZE = 100;
+
+    private final HandlerSettings settings;
+    private final LongSupplier clock;
+    private final Map<String, Baseline> baselines = new LinkedHashMap<String, Baseline>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Baseline> eldest) {
+            return size() > MAX_BASELINES;
+        }
+    };
+
+    public BulkAssociationReader() {
+        this(HandlerSettings.fromEnvironment(), System::currentTimeMillis);
+    }
+
+    BulkAssociationReader(final HandlerSettings settings, final LongSupplier clock) {
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    /**
+     * @param proxy           proxy holding the credentials of the account the associations belong to
+     * @param region          region of the associations, empty for the region of the environment
+     * @param associationArns associations to read
+     * @param logger          logger of the scan
+     * @return the model of every association that exists, by ARN in the order asked for
+     */
+    public Map<String, ResourceModel> read(
+            final AmazonWebServicesClientProxy proxy,
+            final String region,
+            final Collection<String> associationArns,
+            final Logger logger) {
+        return read(associationArns, ApiRateLimiter.shared(settings).wrap(proxy.newProxy(
+                () -> CodeGuruReviewerClientBuilder.getClient(region))), logger);
+    }
+
+    /**
+     * @param associationArns associations to read
+     * @param proxyClient     the aws service client to make the calls
+     * @param logger          logger of the scan
+     * @return the model of every association that exists, by ARN in the order asked for
+     */
+    Map<String, ResourceModel> read(
+            final Collection<String> associationArns,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final Logger logger) {
+        final Map<String, RepositoryAssociationSummary> summaries = listSummaries(associationArns, proxyClient);
+
+        final Map<String, ResourceModel> models = new LinkedHashMap<>();
+        final List<ResourceModel> untagged = new ArrayList<>();
+        for (final String associationArn : associationArns) {
+            final DescribeRepositoryAssociationResponse baseline = baselineOf(associationArn);
+            final RepositoryAssociationSummary summary = summaries.get(associationArn);
+            if (baseline != null && summary != null && unchanged(summary, baseline.repositoryAssociation())) {
+                final ResourceModel model = Translator.translateFromReadResponse(baseline);
+                // The tags of the earlier describe may have changed since; they are read again below.
+                model.setTags(null);
+                untagged.add(model);
+                models.put(associationArn, model);
+                continue;
+            }
+            final DescribeRepositoryAssociationResponse awsResponse = describe(associationArn, proxyClient);
+            if (awsResponse != null) {
+                models.put(associationArn, Translator.translateFromReadResponse(awsResponse));
+            }
+        }
+        final List<ResourceModel> tagged = new TagEnricher(settings, logger).enrich(untagged, proxyClient);
+        if (tagged.size() < untagged.size()) {
+            // Disassociated since it was listed.
+            final Set<String> taggedArns = tagged.stream()
+                    .map(ResourceModel::getAssociationArn)
+                    .collect(Collectors.toSet());
+            untagged.stream()
+                    .map(ResourceModel::getAssociationArn)
+                    .filter(associationArn -> !taggedArns.contains(associationArn))
+                    .forEach(models::remove);
+        }
+        logger.log(String.format("Read %d %s models, %d of them without describing", models.size(),
+                ResourceModel.TYPE_NAME, tagged.size()));
+        return models;
+    }
+
+    /**
+     * Pages through the associations of the account until all the wanted ones are found, or through all of them if
+     * one is missing.
+     */
+    private Map<String, RepositoryAssociationSummary> listSummaries(
+            final Collection<String> associationArns,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient) {
+        final Set<String> wanted = new HashSet<>(associationArns);
+        final Map<String, RepositoryAssociationSummary> summaries = new HashMap<>();
+        String nextToken = null;
+        do {
+            final ListRepositoryAssociationsResponse awsResponse;
+            try {
+                awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                        Translator.translateToListRepositoryAssociationsRequest(null, nextToken, PAGE_SIZE),
+                        proxyClient.client()::listRepositoryAssociations);
+            } catch (final RuntimeException e) {
+                throw ErrorClassifier.toHandlerException(e);
+            }
+            for (final RepositoryAssociationSummary summary : awsResponse.repositoryAssociationSummaries()) {
+                if (wanted.remove(summary.associationArn())) {
+                    summaries.put(summary.associationArn(), summary);
+                }
+            }
+            nextToken = awsResponse.nextToken();
+        } while (nextToken != null && !wanted.isEmpty());
+        return summaries;
+    }
+
+    /**
+     * @return the association as described, or null if it does not exist
+     */
+    private DescribeRepositoryAssociationResponse describe(
+            final String associationArn,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient) {
+        final DescribeRepositoryAssociationResponse awsResponse;
+        try {
+            awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                    Translator.translateToDescribeRepositoryAssociationRequest(
+                            ResourceModel.builder().associationArn(associationArn).build()),
+                    proxyClient.client()::describeRepositoryAssociation);
+        } catch (final NotFoundException e) {
+            synchronized (baselines) {
+                baselines.remove(associationArn);
+            }
+            return null;
+        } catch (final RuntimeException e) {
+            throw ErrorClassifier.toHandlerException(e);
+        }
+        synchronized (baselines) {
+            baselines.put(associationArn, new Baseline(awsResponse, clock.getAsLong()));
+        }
+        return awsResponse;
+    }
+
+    /**
+     * @return the last describe of the association, or null if there is none younger than {@link #BASELINE_MAX_AGE}
+     */
+    private DescribeRepositoryAssociationResponse baselineOf(final String associationArn) {
+        synchronized (baselines) {
+            final Baseline baseline = baselines.get(associationArn);
+            if (baseline == null) {
+                return null;
+            }
+            if (clock.getAsLong() - baseline.describedAt >= BASELINE_MAX_AGE.toMillis()) {
+                baselines.remove(associationArn);
+                return null;
+            }
+            return baseline.awsResponse;
+        }
+    }
+
+    private static boolean unchanged(
+            final RepositoryAssociationSummary summary,
+            final RepositoryAssociation association) {
+        return Objects.equals(summary.lastUpdatedTimeStamp(), association.lastUpdatedTimeStamp())
+                && summary.state() == association.state()
+                && Objects.equals(summary.name(), association.name())
+                && Objects.equals(summary.owner(), association.owner())
+                && Objects.equals(summary.connectionArn(), association.connectionArn());
+    }
+
+    private static final class Baseline {
+        private final DescribeRepositoryAssociationResponse awsResponse;
+        private final long describedAt;
+
+        private Baseline(final DescribeRepositoryAssociationResponse awsResponse, final long describedAt) {
+            this.awsResponse = awsResponse;
+            this.describedAt = describedAt;
+        }
+    }
+}
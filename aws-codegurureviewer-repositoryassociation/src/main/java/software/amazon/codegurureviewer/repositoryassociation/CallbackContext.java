@@ -9,4 +9,8 @@ import software.amazon.cloudformation.proxy.StdCallbackContext;
 public class CallbackContext extends StdCallbackContext {
     private boolean isCreateWorkflow = false;
     private boolean isDeleteWorkflow = false;
+    private int stabilizationAttempts = 0;
+    private String firstObservedState;
+    private long stabilizationStartTime = 0L;
+    private int transientErrorCount = 0;
 }
@@ -0,0 +1,204 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling the service of a region while it fails most calls, instead of adding load to a regional incident.
+ * <p>
+ * CLOSED lets calls through and keeps the outcomes of the last {@link HandlerSettings#getCircuitBreakerWindowCalls()}
+ * of them; once the window is full and the failure rate reaches
+ * {@link HandlerSettings#getCircuitBreakerFailureRatePercent()} the circuit opens. OPEN rejects calls with
+ * {@link CircuitOpenException} for {@link HandlerSettings#getCircuitBreakerOpenDuration()}, then goes HALF_OPEN and
+ * lets a single probe through: a success closes the circuit, a failure opens it again.
+ * <p>
+ * Internal errors, other 5xx responses and client-side failures such as timeouts count as failures. Throttling says
+ * nothing about the health of the service and is not counted; any other response counts as a success. Every state
+ * change is written to the log of the invocation whose call caused it, as the CloudWatch embedded metric
+ * CircuitBreakerState (0 closed, 1 half-open, 2 open) by Region.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        private final int metricValue;
+
+        State(final int metricValue) {
+            this.metricValue = metricValue;
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, IGNORED
+    }
+
+    private static final ConcurrentMap<List<Object>, CircuitBreaker> SHARED = new ConcurrentHashMap<>();
+    private static final CircuitBreaker DISABLED = new CircuitBreaker(CodeGuruReviewerClientBuilder.DEFAULT_REGION,
+            0, 1, Duration.ZERO, System::currentTimeMillis);
+
+    private final String region;
+    private final int failureRatePercent;
+    private final boolean[] window;
+    private final Duration openDuration;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int windowCalls;
+    private int windowNext;
+    private int windowFailures;
+    private long openUntilMillis;
+    private boolean probeInFlight;
+
+    CircuitBreaker(
+            final String region,
+            final int failureRatePercent,
+            final int windowCalls,
+            final Duration openDuration,
+            final LongSupplier clock) {
+        this.region = region;
+        this.failureRatePercent = failureRatePercent;
+        this.window = new boolean[windowCalls];
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * @param region   region the calls go to
+     * @param settings thresholds of the breaker
+     * @return the breaker of the container for the region, or one that never opens if the breaker is turned off
+     */
+    static CircuitBreaker forRegion(final String region, final HandlerSettings settings) {
+        if (settings.getCircuitBreakerFailureRatePercent() == 0) {
+            return DISABLED;
+        }
+        return SHARED.computeIfAbsent(Arrays.asList(region, settings.getCircuitBreakerFailureRatePercent(),
+                settings.getCircuitBreakerWindowCalls(), settings.getCircuitBreakerOpenDuration()),
+                key -> new CircuitBreaker(region, settings.getCircuitBreakerFailureRatePercent(),
+                        settings.getCircuitBreakerWindowCalls(), settings.getCircuitBreakerOpenDuration(),
+                        System::currentTimeMillis));
+    }
+
+    /**
+     * @param call      service call
+     * @param logger    logger of the invocation making the call, which the state changes it causes are written to
+     * @param <ResultT> result type
+     * @return result of the call
+     * @throws CircuitOpenException without making the call while the circuit is open
+     */
+    <ResultT> ResultT call(final Supplier<ResultT> call, final Logger logger) {
+        if (failureRatePercent == 0) {
+            return call.get();
+        }
+        final boolean probe = admit(logger);
+        final ResultT result;
+        try {
+            result = call.get();
+        } catch (final RuntimeException e) {
+            record(outcomeOf(e), probe, logger);
+            throw e;
+        }
+        record(Outcome.SUCCESS, probe, logger);
+        return result;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return true if the call is the probe of a half-open circuit
+     */
+    private synchronized boolean admit(final Logger logger) {
+        final long now = clock.getAsLong();
+        if (state == State.OPEN) {
+            if (now < openUntilMillis) {
+                throw new CircuitOpenException(region, toSeconds(openUntilMillis - now));
+            }
+            transition(State.HALF_OPEN, logger);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                throw new CircuitOpenException(region, toSeconds(openDuration.toMillis()));
+            }
+            probeInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void record(final Outcome outcome, final boolean probe, final Logger logger) {
+        if (probe) {
+            probeInFlight = false;
+            if (outcome == Outcome.FAILURE) {
+                open(logger);
+            } else if (outcome == Outcome.SUCCESS) {
+                resetWindow();
+                transition(State.CLOSED, logger);
+            }
+            return;
+        }
+        if (state != State.CLOSED || outcome == Outcome.IGNORED) {
+            return;
+        }
+        if (windowCalls == window.length && window[windowNext]) {
+            windowFailures--;
+        }
+        window[windowNext] = outcome == Outcome.FAILURE;
+        if (window[windowNext]) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+        windowCalls = Math.min(windowCalls + 1, window.length);
+        if (windowCalls == window.length && windowFailures * 100 >= failureRatePercent * window.length) {
+            open(logger);
+        }
+    }
+
+    private void open(final Logger logger) {
+        openUntilMillis = clock.getAsLong() + openDuration.toMillis();
+        resetWindow();
+        transition(State.OPEN, logger);
+    }
+
+    private void resetWindow() {
+        Arrays.fill(window, false);
+        windowCalls = 0;
+        windowNext = 0;
+        windowFailures = 0;
+    }
+
+    private void transition(final State newState, final Logger logger) {
+        state = newState;
+        EmbeddedMetrics.emit(logger, clock.getAsLong(), region, "None",
+                Collections.singletonMap("CircuitBreakerState", newState.metricValue));
+    }
+
+    private static Outcome outcomeOf(final RuntimeException e) {
+        if (e instanceof ThrottlingException) {
+            return Outcome.IGNORED;
+        }
+        if (e instanceof InternalServerException
+                || e instanceof SdkClientException
+                || (e instanceof AwsServiceException && ((AwsServiceException) e).statusCode() >= 500)) {
+            return Outcome.FAILURE;
+        }
+        return Outcome.SUCCESS;
+    }
+
+    private static int toSeconds(final long millis) {
+        return (int) Math.max(1L, (millis + 999L) / 1000L);
+    }
+}
@@ -0,0 +1,28 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.cloudformation.exceptions.BaseHandlerException;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+
+/**
+ * Raised instead of calling the service while the {@link CircuitBreaker} of the region is open. Handlers that can
+ * call back wait it out with IN_PROGRESS; to the others it is a service internal error.
+ */
+class CircuitOpenException extends BaseHandlerException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    CircuitOpenException(final String region, final int retryAfterSeconds) {
+        super(String.format("Circuit breaker for region [%s] is open, retry after %d seconds", region,
+                retryAfterSeconds), null, HandlerErrorCode.ServiceInternalError);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return seconds until the circuit lets a probe call through
+     */
+    int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
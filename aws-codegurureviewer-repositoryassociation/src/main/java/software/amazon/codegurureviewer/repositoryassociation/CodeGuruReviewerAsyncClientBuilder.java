@@ -0,0 +1,49 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClient;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Async counterpart of {@link CodeGuruReviewerClientBuilder}, for handler paths that keep several calls in flight
+ * without a thread per call. Clients are cached per region the same way and all of them share one non-blocking HTTP
+ * client, so a new region adds no event loop or connection pool of its own. Like the sync clients they are never
+ * closed. Retries and timeouts are configured as for the sync clients.
+ */
+public class CodeGuruReviewerAsyncClientBuilder {
+
+    /**
+     * HTTP client of all async clients, which lives as long as the container.
+     */
+    private static final SdkAsyncHttpClient HTTP_CLIENT = NettyNioAsyncHttpClient.builder().build();
+
+    private static final ConcurrentMap<String, CodeGuruReviewerAsyncClient> CLIENTS = new ConcurrentHashMap<>();
+
+    public static CodeGuruReviewerAsyncClient getClient() {
+        return getClient(CodeGuruReviewerClientBuilder.DEFAULT_REGION);
+    }
+
+    /**
+     * @param region region the client calls, empty for the region of the environment
+     * @return the cached client for the region, built on first use
+     */
+    public static CodeGuruReviewerAsyncClient getClient(final String region) {
+        return CLIENTS.computeIfAbsent(region == null ? CodeGuruReviewerClientBuilder.DEFAULT_REGION : region,
+                CodeGuruReviewerAsyncClientBuilder::build);
+    }
+
+    private static CodeGuruReviewerAsyncClient build(final String region) {
+        final software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClientBuilder builder =
+                CodeGuruReviewerAsyncClient.builder()
+                        .httpClient(HTTP_CLIENT)
+                        .overrideConfiguration(CodeGuruReviewerClientBuilder.overrideConfiguration());
+        if (!CodeGuruReviewerClientBuilder.DEFAULT_REGION.equals(region)) {
+            builder.region(Region.of(region));
+        }
+        return builder.build();
+    }
+}
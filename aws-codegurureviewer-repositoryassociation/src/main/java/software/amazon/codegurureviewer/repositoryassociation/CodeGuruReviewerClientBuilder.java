@@ -1,12 +1,120 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
+import com.amazonaws.util.StringUtils;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.conditions.AndRetryCondition;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
 import software.amazon.cloudformation.LambdaWrapper;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands out one client per region and keeps it for the lifetime of the container, so warm invocations skip client
+ * construction and endpoint resolution. Clients are thread-safe and take credentials from each request, so sharing
+ * them across invocations is safe. Clients are never closed: invocations may hold them at any time, and all of
+ * them share the wrapper's HTTP client, which lives as long as the container.
+ * <p>
+ * Clients retry in adaptive mode, which slows down the calls of the whole container once the service throttles,
+ * bound each attempt and each call in time, and draw their retries from {@link #RETRY_BUDGET}.
+ */
 public class CodeGuruReviewerClientBuilder {
+
+    /**
+     * Cache key of the client that resolves its region from the environment.
+     */
+    static final String DEFAULT_REGION = "";
+
+    private static final HandlerSettings SETTINGS = HandlerSettings.fromEnvironment();
+
+    /**
+     * Retries left to the container, shared by all cached clients, sync and async.
+     */
+    static final RetryBudget RETRY_BUDGET = new RetryBudget(SETTINGS.getSdkRetryBudget());
+
+    private static final ConcurrentMap<String, CodeGuruReviewerClient> CLIENTS = new ConcurrentHashMap<>();
+
     public static CodeGuruReviewerClient getClient() {
-        return CodeGuruReviewerClient.builder()
-                .httpClient(LambdaWrapper.HTTP_CLIENT)
-                .build();
+        return getClient(DEFAULT_REGION);
+    }
+
+    /**
+     * @param region region the client calls, empty for the region of the environment
+     * @return the cached client for the region, built on first use
+     */
+    public static CodeGuruReviewerClient getClient(final String region) {
+        return CLIENTS.computeIfAbsent(region == null ? DEFAULT_REGION : region, CodeGuruReviewerClientBuilder::build);
+    }
+
+    /**
+     * The region of the association when the model names one, which is where the association lives, otherwise the
+     * region of the request.
+     *
+     * @param request handler request
+     * @return region for the client, empty if neither names one
+     */
+    static String regionOf(final ResourceHandlerRequest<ResourceModel> request) {
+        final ResourceModel model = request.getDesiredResourceState();
+        final String arnRegion = model == null ? null : regionOfArn(model.getAssociationArn());
+        if (!StringUtils.isNullOrEmpty(arnRegion)) {
+            return arnRegion;
+        }
+        return StringUtils.isNullOrEmpty(request.getRegion()) ? DEFAULT_REGION : request.getRegion();
+    }
+
+    /**
+     * @param arn ARN of the form arn:partition:service:region:account:resource
+     * @return the region field of the ARN, null if it is not an ARN
+     */
+    static String regionOfArn(final String arn) {
+        if (StringUtils.isNullOrEmpty(arn)) {
+            return null;
+        }
+        final String[] fields = arn.split(":", 6);
+        if (fields.length < 6 || !"arn".equals(fields[0])) {
+            return null;
+        }
+        return fields[3];
+    }
+
+    /**
+     * @param settings timeouts of the clients
+     * @return retry and timeout configuration of the clients
+     */
+    static ClientOverrideConfiguration overrideConfiguration(final HandlerSettings settings) {
+        final ClientOverrideConfiguration.Builder builder = ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.builder(RetryMode.ADAPTIVE)
+                        .retryCondition(AndRetryCondition.create(RetryCondition.defaultRetryCondition(), RETRY_BUDGET))
+                        .build());
+        if (!settings.getSdkApiCallAttemptTimeout().isZero()) {
+            builder.apiCallAttemptTimeout(settings.getSdkApiCallAttemptTimeout());
+        }
+        if (!settings.getSdkApiCallTimeout().isZero()) {
+            builder.apiCallTimeout(settings.getSdkApiCallTimeout());
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return retry and timeout configuration of the clients, as configured by the environment
+     */
+    static ClientOverrideConfiguration overrideConfiguration() {
+        return overrideConfiguration(SETTINGS);
+    }
+
+    private static CodeGuruReviewerClient build(final String region) {
+        final software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClientBuilder builder =
+                CodeGuruReviewerClient.builder()
+                        .httpClient(LambdaWrapper.HTTP_CLIENT)
+                        .overrideConfiguration(overrideConfiguration());
+        if (!DEFAULT_REGION.equals(region)) {
+            builder.region(Region.of(region));
+        }
+        return builder.build();
     }
 }
@@ -1,7 +1,5 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
-import software.amazon.awssdk.awscore.AwsRequest;
-import software.amazon.awssdk.awscore.AwsResponse;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
 import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
 import software.amazon.awssdk.services.codegurureviewer.model.AssociateRepositoryRequest;
@@ -9,7 +7,11 @@ import software.amazon.awssdk.services.codegurureviewer.model.AssociateRepositor
 import software.amazon.awssdk.services.codegurureviewer.model.ConflictException;
 import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
 import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
 import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
 import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
@@ -20,15 +22,37 @@ import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
 import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Delay;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 public class CreateHandler extends BaseHandlerStd {
 
     private Logger logger;
 
+    public CreateHandler() {
+        super();
+    }
+
+    CreateHandler(final HandlerSettings settings) {
+        super(settings);
+    }
+
+    CreateHandler(final HandlerSettings settings, final StateDelays stateDelays, final Delay transientErrorDelay) {
+        super(settings, stateDelays, transientErrorDelay);
+    }
+
+    @Override
+    protected boolean waitsOutOpenCircuit() {
+        return true;
+    }
+
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
@@ -40,16 +64,23 @@ public class CreateHandler extends BaseHandlerStd {
         this.logger = logger;
 
         final ResourceModel model = request.getDesiredResourceState();
+        final String region = CodeGuruReviewerClientBuilder.regionOf(request);
+        final Samples samples = new Samples();
 
         return ProgressEvent.progress(model, callbackContext)
                 .then(progress ->
                         proxy.initiate("AWS-CodeGuruReviewer-RepositoryAssociation::Create", proxyClient, model, callbackContext)
-                                .translateToServiceRequest((Translator::translateToAssociateRepositoryRequest))
-                                .backoffDelay(BACKOFF_STRATEGY)
-                                .makeServiceCall((awsRequest, sdkProxyClient) -> createResource(awsRequest, sdkProxyClient , model, callbackContext))
-                                .stabilize(this::stabilizeOnHandle)
+                                .translateToServiceRequest(resourceModel -> Translator.translateToAssociateRepositoryRequest(
+                                        resourceModel, request.getClientRequestToken()))
+                                .makeServiceCall((awsRequest, sdkProxyClient) -> createResource(awsRequest,
+                                        sdkProxyClient, model, callbackContext, samples, region, logger))
                                 .progress())
-                .then(progress -> ProgressEvent.defaultSuccessHandler(progress.getResourceModel()));
+                .then(progress -> waitForStabilization(progress,
+                        (resourceModel, context) -> stabilizeOnHandle(proxyClient, resourceModel, context, samples,
+                                region, logger),
+                        stateDelay(RepositoryAssociationState.ASSOCIATING, model,
+                                settings.getCreateStabilizationTimeout()), logger))
+                .then(progress -> constructResourceModelFromResponse(proxyClient, model, samples, region, logger));
 
     }
 
@@ -59,21 +90,29 @@ public class CreateHandler extends BaseHandlerStd {
      *
      * @param associateRepositoryRequest the aws service request to create a resource
      * @param proxyClient                the aws service client to make the call
+     * @param samples                    states sampled by the invocation
+     * @param region                     region the client calls
+     * @param logger                     logger of the invocation
      * @return awsResponse create resource response
      */
     private AssociateRepositoryResponse createResource(
             final AssociateRepositoryRequest associateRepositoryRequest,
             final ProxyClient<CodeGuruReviewerClient> proxyClient,
             final ResourceModel model,
-            final CallbackContext callbackContext) {
+            final CallbackContext callbackContext,
+            final Samples samples,
+            final String region,
+            final Logger logger) {
         AssociateRepositoryResponse awsResponse = null;
+        boolean adopted = false;
 
         try {
-            awsResponse = proxyClient.injectCredentialsAndInvokeV2(associateRepositoryRequest,
-                    proxyClient.client()::associateRepository);
+            awsResponse = CircuitBreaker.forRegion(region, settings).call(() ->
+                    proxyClient.injectCredentialsAndInvokeV2(associateRepositoryRequest,
+                            proxyClient.client()::associateRepository), logger);
             logger.log(String.format("AssociateRepository response: %s", awsResponse.toString()));
-            model.setAssociationArn(awsResponse.repositoryAssociation().associationArn());
-            callbackContext.setCreateWorkflow(true);
+        } catch (final CircuitOpenException e) {
+            throw e;
         } catch (final InternalServerException e) {
             throw new CfnServiceInternalErrorException(ResourceModel.TYPE_NAME, e);
         } catch (final ValidationException e) {
@@ -81,17 +120,111 @@ public class CreateHandler extends BaseHandlerStd {
         } catch (final AccessDeniedException e) {
             throw new CfnAccessDeniedException(ResourceModel.TYPE_NAME, e);
         } catch (final ConflictException e) {
-            throw new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, model.getName(), e);
+            if (!settings.isAdoptExistingAssociation()) {
+                throw new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, model.getName(), e);
+            }
+            awsResponse = findExistingAssociation(proxyClient, model)
+                    .orElseThrow(() -> new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, model.getName(), e));
+            adopted = true;
+            logger.log(String.format("Adopting existing association: %s", awsResponse.toString()));
         } catch (final ThrottlingException e) {
             throw new CfnThrottlingException(ResourceModel.TYPE_NAME, e);
         } catch (final Exception e) {
             throw new CfnInternalFailureException(e);
         }
 
+        model.setAssociationArn(awsResponse.repositoryAssociation().associationArn());
+        callbackContext.setCreateWorkflow(true);
+        if (adopted) {
+            reconcileAdoptedTags(proxyClient, model, logger);
+        }
+        // An adopted association comes from a list summary, which carries no tags, so it is described instead.
+        if (!adopted && awsResponse.repositoryAssociation().state() != null) {
+            samples.serviceCallSample = DescribeRepositoryAssociationResponse.builder()
+                    .repositoryAssociation(awsResponse.repositoryAssociation())
+                    .tags(awsResponse.tags())
+                    .build();
+        }
         logger.log(String.format("%s successfully created.", ResourceModel.TYPE_NAME));
         return awsResponse;
     }
 
+    /**
+     * Looks up the active association of the repository described by the model, after AssociateRepository
+     * reported that one already exists.
+     *
+     * @param proxyClient the aws service client to make the call
+     * @param model       resource model
+     * @return the existing association in the shape of an AssociateRepository response, if there is one
+     */
+    private Optional<AssociateRepositoryResponse> findExistingAssociation(
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final ResourceModel model) {
+        String nextToken = null;
+
+        try {
+            do {
+                final ListRepositoryAssociationsResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                        Translator.translateToFindAssociationRequest(model, nextToken),
+                        proxyClient.client()::listRepositoryAssociations);
+                final Optional<RepositoryAssociationSummary> summary = awsResponse.repositoryAssociationSummaries()
+                        .stream()
+                        .findFirst();
+                if (summary.isPresent()) {
+                    return summary.map(Translator::translateToAssociateRepositoryResponse);
+                }
+                nextToken = awsResponse.nextToken();
+            } while (nextToken != null);
+        } catch (final InternalServerException e) {
+            throw new CfnServiceInternalErrorException(ResourceModel.TYPE_NAME, e);
+        } catch (final ValidationException e) {
+            throw new CfnInvalidRequestException(ResourceModel.TYPE_NAME, e);
+        } catch (final AccessDeniedException e) {
+            throw new CfnAccessDeniedException(ResourceModel.TYPE_NAME, e);
+        } catch (final ThrottlingException e) {
+            throw new CfnThrottlingException(ResourceModel.TYPE_NAME, e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Gives an adopted association the tags of the model, as UpdateHandler would: tags the model does not declare are
+     * removed and the declared ones are added or overwritten. The stack then reports the tags it declares, and its
+     * next update diffs against tags the service actually has.
+     *
+     * @param proxyClient the aws service client to make the calls
+     * @param model       resource model, carrying the ARN of the adopted association
+     * @param logger      logger of the invocation
+     */
+    private void reconcileAdoptedTags(
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final ResourceModel model,
+            final Logger logger) {
+        try {
+            final ListTagsForResourceResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                    Translator.translateToListTagsForResourceRequest(model),
+                    proxyClient.client()::listTagsForResource);
+            final ResourceModel adoptedModel = ResourceModel.builder()
+                    .tags(Translator.translateFromTags(awsResponse.tags()))
+                    .build();
+            final Set<String> tagKeysToRemove = Translator.getTagKeysToRemove(adoptedModel, model);
+            final Map<String, String> tagsToAdd = Translator.getTagsToAdd(adoptedModel, model);
+            if (!tagKeysToRemove.isEmpty()) {
+                proxyClient.injectCredentialsAndInvokeV2(
+                        Translator.translateToUntagResourceRequest(model, tagKeysToRemove),
+                        proxyClient.client()::untagResource);
+            }
+            if (!tagsToAdd.isEmpty()) {
+                proxyClient.injectCredentialsAndInvokeV2(Translator.translateToTagResourceRequest(model, tagsToAdd),
+                        proxyClient.client()::tagResource);
+            }
+            logger.log(String.format("%s [%s] adopted: removed tags %s, set tags %s", ResourceModel.TYPE_NAME,
+                    model.getAssociationArn(), tagKeysToRemove, tagsToAdd.keySet()));
+        } catch (final RuntimeException e) {
+            throw ErrorClassifier.toHandlerException(e);
+        }
+    }
 
     /**
      * If your resource requires some form of stabilization (e.g. service does not provide strong consistency), you
@@ -100,32 +233,93 @@ public class CreateHandler extends BaseHandlerStd {
      * . NotFoundException/InvalidRequestException)
      * for more information -> https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
      *
-     * @param awsRequest      the aws service request to create a resource
-     * @param awsResponse     the aws service response to create a resource
      * @param proxyClient     the aws service client to make the call
      * @param model           resource model
      * @param callbackContext callback context
+     * @param samples         states sampled by the invocation
+     * @param region          region the client calls
+     * @param logger          logger of the invocation
      * @return boolean state of stabilized or not
      */
-    @Override
-    protected boolean stabilizeOnHandle(
-            final AwsRequest awsRequest,
-            final AwsResponse awsResponse,
+    private boolean stabilizeOnHandle(
             final ProxyClient<CodeGuruReviewerClient> proxyClient,
             final ResourceModel model,
-            final CallbackContext callbackContext) {
+            final CallbackContext callbackContext,
+            final Samples samples,
+            final String region,
+            final Logger logger) {
         boolean stabilized = false;
-        DescribeRepositoryAssociationResponse describeRepositoryAssociationResponse =
-                describeRepositoryAssociation(Translator.translateToDescribeRepositoryAssociationRequest(model), proxyClient, model);
-        logger.log(String.format("DescribeRepositoryAssociation response: %s", describeRepositoryAssociationResponse.toString()));
-        RepositoryAssociationState currentState = describeRepositoryAssociationResponse.repositoryAssociation().state();
+        if (samples.serviceCallSample != null) {
+            // The AssociateRepository response already carries a state, so it serves as the first sample.
+            samples.lastObservedResponse = samples.serviceCallSample;
+            samples.serviceCallSample = null;
+        } else if (sweptStillIn(RepositoryAssociationState.ASSOCIATING, model, proxyClient, callbackContext, region)) {
+            return false;
+        } else {
+            samples.lastObservedResponse = describeRepositoryAssociation(
+                    Translator.translateToDescribeRepositoryAssociationRequest(model), proxyClient, model, region,
+                    logger);
+            logger.log(String.format("DescribeRepositoryAssociation response: %s", samples.lastObservedResponse));
+        }
+        final RepositoryAssociation repositoryAssociation = samples.lastObservedResponse.repositoryAssociation();
+        RepositoryAssociationState currentState = repositoryAssociation.state();
+        recordObservedState(callbackContext, currentState);
 
         if (currentState.equals(RepositoryAssociationState.ASSOCIATED)) {
             stabilized = true;
         } else if (currentState.equals(RepositoryAssociationState.FAILED)) {
-            throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, model.getName());
+            logger.log(String.format("%s [%s] failed to associate: %s", ResourceModel.TYPE_NAME,
+                    model.getAssociationArn(), repositoryAssociation.stateReason()));
+            throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, model.getName(),
+                    new IllegalStateException(repositoryAssociation.stateReason()));
         }
 
         return stabilized;
     }
+
+    /**
+     * The association has usually just been read while stabilizing, so the success model is built from that response
+     * rather than echoing the desired state. This saves callers a separate Read after the create. If this invocation
+     * has not read the association as ASSOCIATED itself, it is described once more.
+     *
+     * @param proxyClient the aws service client to make the call
+     * @param model       resource model
+     * @param samples     states sampled by the invocation
+     * @param region      region the client calls
+     * @param logger      logger of the invocation
+     * @return progressEvent indicating success with the model as read from the service
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> constructResourceModelFromResponse(
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final ResourceModel model,
+            final Samples samples,
+            final String region,
+            final Logger logger) {
+        DescribeRepositoryAssociationResponse awsResponse = samples.lastObservedResponse;
+        if (awsResponse == null
+                || awsResponse.repositoryAssociation().state() != RepositoryAssociationState.ASSOCIATED) {
+            awsResponse = describeRepositoryAssociation(
+                    Translator.translateToDescribeRepositoryAssociationRequest(model), proxyClient, model, region,
+                    logger);
+        }
+        final ResourceModel resourceModel = Translator.translateFromReadResponse(awsResponse);
+        // An adopted association may have been read before.
+        invalidateReadCache(resourceModel);
+        return ProgressEvent.defaultSuccessHandler(resourceModel);
+    }
+
+    /**
+     * Association states sampled by one invocation. Created per invocation, since the handler instance is shared.
+     */
+    private static final class Samples {
+        /**
+         * State reported by AssociateRepository, used as the first probe instead of a describe.
+         */
+        private DescribeRepositoryAssociationResponse serviceCallSample;
+
+        /**
+         * Last response the stabilization probes read, which the success model is built from.
+         */
+        private DescribeRepositoryAssociationResponse lastObservedResponse;
+    }
 }
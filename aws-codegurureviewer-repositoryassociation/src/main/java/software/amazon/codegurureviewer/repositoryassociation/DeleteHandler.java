@@ -1,7 +1,5 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
-import software.amazon.awssdk.awscore.AwsRequest;
-import software.amazon.awssdk.awscore.AwsResponse;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
 import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
 import software.amazon.awssdk.services.codegurureviewer.model.ConflictException;
@@ -9,6 +7,7 @@ import software.amazon.awssdk.services.codegurureviewer.model.DisassociateReposi
 import software.amazon.awssdk.services.codegurureviewer.model.DisassociateRepositoryResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
 import software.amazon.awssdk.services.codegurureviewer.model.NotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
 import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
 import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
 import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
@@ -19,6 +18,7 @@ import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
 import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Delay;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
@@ -28,6 +28,23 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 public class DeleteHandler extends BaseHandlerStd {
     private Logger logger;
 
+    public DeleteHandler() {
+        super();
+    }
+
+    DeleteHandler(final HandlerSettings settings) {
+        super(settings);
+    }
+
+    DeleteHandler(final HandlerSettings settings, final StateDelays stateDelays, final Delay transientErrorDelay) {
+        super(settings, stateDelays, transientErrorDelay);
+    }
+
+    @Override
+    protected boolean waitsOutOpenCircuit() {
+        return true;
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -38,21 +55,33 @@ public class DeleteHandler extends BaseHandlerStd {
         this.logger = logger;
 
         final ResourceModel model = request.getDesiredResourceState();
+        final String region = CodeGuruReviewerClientBuilder.regionOf(request);
+        final Samples samples = new Samples();
+        invalidateReadCache(model);
 
         return ProgressEvent.progress(model, callbackContext)
-                .then(progress -> checkForPreDeleteResourceExistence(request, progress, proxyClient))
+                .then(progress -> settings.isSingleRoundTripDelete()
+                        ? progress
+                        : checkForPreDeleteResourceExistence(request, progress, proxyClient))
                 .then(progress ->
                         proxy.initiate("AWS-CodeGuruReviewer-RepositoryAssociation::Delete", proxyClient, model,
                                 callbackContext)
                                 .translateToServiceRequest(Translator::translateToDisassociateRepositoryRequest)
-                                .backoffDelay(BACKOFF_STRATEGY)
                                 .makeServiceCall((awsRequest, sdkProxyClient) -> deleteResource(awsRequest,
-                                        sdkProxyClient, model, callbackContext))
-                                .stabilize(this::stabilizeOnHandle)
+                                        sdkProxyClient, model, callbackContext, samples, region, logger))
                                 .progress())
-                .then((response -> ProgressEvent.<ResourceModel, CallbackContext>builder()
-                        .status(OperationStatus.SUCCESS)
-                        .build()));
+                .then(progress -> waitForStabilization(progress,
+                        (resourceModel, context) -> stabilizeOnHandle(proxyClient, resourceModel, context, samples,
+                                region, logger),
+                        stateDelay(RepositoryAssociationState.DISASSOCIATING, model,
+                                settings.getDeleteStabilizationTimeout()), logger))
+                .then((response -> {
+                    // Reads made while disassociating may have cached the association again.
+                    invalidateReadCache(model);
+                    return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                            .status(OperationStatus.SUCCESS)
+                            .build();
+                }));
     }
 
     /**
@@ -97,20 +126,32 @@ public class DeleteHandler extends BaseHandlerStd {
      *
      * @param disassociateRepositoryRequest the aws service request to delete a resource
      * @param proxyClient                   the aws service client to make the call
+     * @param samples                       states sampled by the invocation
+     * @param region                        region the client calls
+     * @param logger                        logger of the invocation
      * @return delete resource response
      */
     private DisassociateRepositoryResponse deleteResource(
             final DisassociateRepositoryRequest disassociateRepositoryRequest,
             final ProxyClient<CodeGuruReviewerClient> proxyClient,
             final ResourceModel model,
-            final CallbackContext callbackContext) {
+            final CallbackContext callbackContext,
+            final Samples samples,
+            final String region,
+            final Logger logger) {
         DisassociateRepositoryResponse awsResponse = null;
 
         try {
-            awsResponse = proxyClient.injectCredentialsAndInvokeV2(disassociateRepositoryRequest,
-                    proxyClient.client()::disassociateRepository);
+            awsResponse = CircuitBreaker.forRegion(region, settings).call(() ->
+                    proxyClient.injectCredentialsAndInvokeV2(disassociateRepositoryRequest,
+                            proxyClient.client()::disassociateRepository), logger);
             callbackContext.setDeleteWorkflow(true);
             logger.log(String.format("DisassociateRepository response: %s", awsResponse.toString()));
+            if (settings.isSingleRoundTripDelete() && awsResponse.repositoryAssociation() != null) {
+                samples.serviceCallState = awsResponse.repositoryAssociation().state();
+            }
+        } catch (final CircuitOpenException e) {
+            throw e;
         } catch (final NotFoundException e) {
             throw new CfnNotFoundException(ResourceModel.TYPE_NAME, model.getName(), e);
         } catch (final InternalServerException e) {
@@ -136,29 +177,59 @@ public class DeleteHandler extends BaseHandlerStd {
      * for more information ->
      * https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
      *
-     * @param proxyClient the aws service client to make the call
-     * @param model       resource model
+     * @param proxyClient     the aws service client to make the call
+     * @param model           resource model
+     * @param callbackContext callback context
+     * @param samples         states sampled by the invocation
+     * @param region          region the client calls
+     * @param logger          logger of the invocation
      * @return boolean state of stabilized or not
      */
-    @Override
-    protected boolean stabilizeOnHandle(
-            final AwsRequest awsRequest,
-            final AwsResponse awsResponse,
+    private boolean stabilizeOnHandle(
             final ProxyClient<CodeGuruReviewerClient> proxyClient,
             final ResourceModel model,
-            final CallbackContext callbackContext) {
+            final CallbackContext callbackContext,
+            final Samples samples,
+            final String region,
+            final Logger logger) {
         boolean stabilized = false;
 
+        if (samples.serviceCallState != null) {
+            // DisassociateRepository already reported the state, so describing right away could only confirm it.
+            recordObservedState(callbackContext, samples.serviceCallState);
+            samples.serviceCallState = null;
+            return false;
+        }
+        if (sweptStillIn(RepositoryAssociationState.DISASSOCIATING, model, proxyClient, callbackContext, region)) {
+            return false;
+        }
+
         try {
-            describeRepositoryAssociation(Translator.translateToDescribeRepositoryAssociationRequest(model),
-                    proxyClient, model);
+            recordObservedState(callbackContext, describeRepositoryAssociation(
+                    Translator.translateToDescribeRepositoryAssociationRequest(model), proxyClient, model, region,
+                    logger).repositoryAssociation().state());
         } catch (final CfnNotFoundException e) {
             stabilized = true;
-        } catch (final Exception e) {
-            logger.log(String.format("%s [%s] encounter exception when verifying stabilization",
-                    ResourceModel.TYPE_NAME, model.getPrimaryIdentifier()));
+        } catch (final RuntimeException e) {
+            if (ErrorClassifier.isTransient(e)) {
+                // Retried on the transient error backoff, without using up the attempts of the state schedule.
+                throw e;
+            }
+            logger.log(String.format("%s [%s] cannot be verified as deleted: %s",
+                    ResourceModel.TYPE_NAME, model.getPrimaryIdentifier(), e.getMessage()));
+            throw ErrorClassifier.toHandlerException(e);
         }
 
         return stabilized;
     }
+
+    /**
+     * Association states sampled by one invocation. Created per invocation, since the handler instance is shared.
+     */
+    private static final class Samples {
+        /**
+         * State reported by DisassociateRepository, used as the first probe instead of a describe.
+         */
+        private RepositoryAssociationState serviceCallState;
+    }
 }
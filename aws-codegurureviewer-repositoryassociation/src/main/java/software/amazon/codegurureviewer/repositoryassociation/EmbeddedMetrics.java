@@ -0,0 +1,42 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes CloudWatch embedded metrics to the log of the invocation that observed them. CloudWatch Logs extracts the
+ * metrics from the log lines, so they need no client and no call of their own.
+ */
+final class EmbeddedMetrics {
+
+    static final String NAMESPACE = "AWS-CodeGuruReviewer-RepositoryAssociation";
+
+    private EmbeddedMetrics() {
+    }
+
+    /**
+     * @param logger    logger of the invocation
+     * @param timestamp time of the observation, in epoch milliseconds
+     * @param region    region the metrics are about, empty for the region of the environment
+     * @param unit      CloudWatch unit of every metric
+     * @param metrics   metric values by name, written in iteration order
+     */
+    static void emit(
+            final Logger logger,
+            final long timestamp,
+            final String region,
+            final String unit,
+            final Map<String, Integer> metrics) {
+        final String definitions = metrics.keySet().stream()
+                .map(name -> String.format("{\"Name\":\"%s\",\"Unit\":\"%s\"}", name, unit))
+                .collect(Collectors.joining(","));
+        final String values = metrics.entrySet().stream()
+                .map(metric -> String.format(",\"%s\":%d", metric.getKey(), metric.getValue()))
+                .collect(Collectors.joining());
+        logger.log(String.format("{\"_aws\":{\"Timestamp\":%d,\"CloudWatchMetrics\":[{\"Namespace\":\"%s\","
+                        + "\"Dimensions\":[[\"Region\"]],\"Metrics\":[%s]}]},\"Region\":\"%s\"%s}",
+                timestamp, NAMESPACE, definitions, region.isEmpty() ? "default" : region, values));
+    }
+}
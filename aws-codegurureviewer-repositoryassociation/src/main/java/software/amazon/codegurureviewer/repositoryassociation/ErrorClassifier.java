@@ -0,0 +1,68 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
+import software.amazon.cloudformation.exceptions.BaseHandlerException;
+import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * The one place service errors are classified. {@link #isTransient(Exception)} decides which errors seen while
+ * stabilizing are worth another probe: throttling, internal errors and client-side failures (connection resets,
+ * timeouts) clear up on their own, while anything else (access denied, validation, ...) fails the same way on every
+ * probe, so the handler should give up right away. {@link #toHandlerException(Throwable)} maps the errors every
+ * operation shares to the handler exception that fails the handler with the matching error code; errors that mean
+ * something different per operation, such as not found or conflict, are handled by the operation before it.
+ */
+final class ErrorClassifier {
+
+    /**
+     * @param e error raised by a service call, either as thrown by the SDK or as mapped by the handlers
+     * @return true if retrying the call may succeed
+     */
+    static boolean isTransient(final Exception e) {
+        return e instanceof CfnThrottlingException
+                || e instanceof CfnServiceInternalErrorException
+                || e instanceof ThrottlingException
+                || e instanceof InternalServerException
+                || e instanceof SdkClientException;
+    }
+
+    /**
+     * @param e error raised by a service call, either as thrown by the SDK or as already mapped
+     * @return the error as the matching handler exception, or as an internal failure if nothing maps it
+     */
+    static BaseHandlerException toHandlerException(final Throwable e) {
+        if (e instanceof BaseHandlerException) {
+            return (BaseHandlerException) e;
+        } else if (e instanceof InternalServerException) {
+            return new CfnServiceInternalErrorException(ResourceModel.TYPE_NAME, e);
+        } else if (e instanceof ValidationException) {
+            return new CfnInvalidRequestException(ResourceModel.TYPE_NAME, e);
+        } else if (e instanceof AccessDeniedException) {
+            return new CfnAccessDeniedException(ResourceModel.TYPE_NAME, e);
+        } else if (e instanceof ThrottlingException) {
+            return new CfnThrottlingException(ResourceModel.TYPE_NAME, e);
+        }
+        return new CfnInternalFailureException(e);
+    }
+
+    /**
+     * @param e failure of a call made on another thread
+     * @return the error the call raised, as if it had been made on the calling thread
+     */
+    static RuntimeException unwrap(final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return new CfnInternalFailureException(e.getCause());
+    }
+}
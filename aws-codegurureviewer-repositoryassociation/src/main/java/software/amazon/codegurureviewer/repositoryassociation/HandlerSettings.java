@@ -0,0 +1,329 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tunables shared by the handlers. The defaults are what the contract tests expect; a deployment can override
+ * individual values through environment variables of the same name.
+ */
+@lombok.Value
+@lombok.Builder(toBuilder = true)
+class HandlerSettings {
+
+    static final String CREATE_STABILIZATION_TIMEOUT_SECONDS = "CREATE_STABILIZATION_TIMEOUT_SECONDS";
+    static final String DELETE_STABILIZATION_TIMEOUT_SECONDS = "DELETE_STABILIZATION_TIMEOUT_SECONDS";
+    static final String IN_PROCESS_POLL_THRESHOLD_SECONDS = "IN_PROCESS_POLL_THRESHOLD_SECONDS";
+    static final String IN_PROCESS_STABILIZATION_BUDGET_SECONDS = "IN_PROCESS_STABILIZATION_BUDGET_SECONDS";
+    static final String ADOPT_EXISTING_ASSOCIATION = "ADOPT_EXISTING_ASSOCIATION";
+    static final String SINGLE_ROUND_TRIP_DELETE = "SINGLE_ROUND_TRIP_DELETE";
+    static final String TRANSIENT_ERROR_BUDGET = "TRANSIENT_ERROR_BUDGET";
+    static final String LIST_PAGE_SIZE = "LIST_PAGE_SIZE";
+    static final String LIST_AGGREGATION_BUDGET_SECONDS = "LIST_AGGREGATION_BUDGET_SECONDS";
+    static final String LIST_AGGREGATION_MAX_MODELS = "LIST_AGGREGATION_MAX_MODELS";
+    static final String LIST_TAG_ENRICHMENT = "LIST_TAG_ENRICHMENT";
+    static final String LIST_TAG_CONCURRENCY = "LIST_TAG_CONCURRENCY";
+    static final String LIST_TAG_REQUESTS_PER_SECOND = "LIST_TAG_REQUESTS_PER_SECOND";
+    static final String ASYNC_CLIENT = "ASYNC_CLIENT";
+    static final String SDK_RETRY_BUDGET = "SDK_RETRY_BUDGET";
+    static final String SDK_API_CALL_ATTEMPT_TIMEOUT_SECONDS = "SDK_API_CALL_ATTEMPT_TIMEOUT_SECONDS";
+    static final String SDK_API_CALL_TIMEOUT_SECONDS = "SDK_API_CALL_TIMEOUT_SECONDS";
+    static final String API_DESCRIBE_REQUESTS_PER_SECOND = "API_DESCRIBE_REQUESTS_PER_SECOND";
+    static final String API_MUTATE_REQUESTS_PER_SECOND = "API_MUTATE_REQUESTS_PER_SECOND";
+    static final String API_LIST_REQUESTS_PER_SECOND = "API_LIST_REQUESTS_PER_SECOND";
+    static final String CIRCUIT_BREAKER_FAILURE_RATE_PERCENT = "CIRCUIT_BREAKER_FAILURE_RATE_PERCENT";
+    static final String CIRCUIT_BREAKER_WINDOW_CALLS = "CIRCUIT_BREAKER_WINDOW_CALLS";
+    static final String CIRCUIT_BREAKER_OPEN_SECONDS = "CIRCUIT_BREAKER_OPEN_SECONDS";
+    static final String COALESCE_DESCRIBES = "COALESCE_DESCRIBES";
+    static final String BATCH_STABILIZATION_POLLING = "BATCH_STABILIZATION_POLLING";
+    static final String BATCH_SWEEP_MAX_AGE_SECONDS = "BATCH_SWEEP_MAX_AGE_SECONDS";
+    static final String HEDGE_DESCRIBE_BUDGET_PERCENT = "HEDGE_DESCRIBE_BUDGET_PERCENT";
+    static final String READ_CACHE_TTL_SECONDS = "READ_CACHE_TTL_SECONDS";
+    static final String READ_CACHE_MAX_ENTRIES = "READ_CACHE_MAX_ENTRIES";
+
+    /**
+     * How long CreateHandler waits for an association to leave ASSOCIATING. Five minutes, as with the fixed backoff
+     * the handlers used before the timeout became configurable.
+     */
+    @lombok.Builder.Default
+    private final Duration createStabilizationTimeout = Duration.ofMinutes(5L);
+
+    /**
+     * How long DeleteHandler waits for an association to leave DISASSOCIATING.
+     */
+    @lombok.Builder.Default
+    private final Duration deleteStabilizationTimeout = Duration.ofMinutes(5L);
+
+    /**
+     * Longest wait the handlers sleep through in-process while stabilizing. Longer waits are handed back to
+     * CloudFormation as a callback delay instead of being billed as Lambda time. Zero always uses callbacks.
+     */
+    @lombok.Builder.Default
+    private final Duration inProcessPollThreshold = Duration.ofSeconds(5L);
+
+    /**
+     * Total time a single invocation may spend polling in-process before returning IN_PROGRESS.
+     */
+    @lombok.Builder.Default
+    private final Duration inProcessStabilizationBudget = Duration.ofSeconds(30L);
+
+    /**
+     * Number of throttling or internal errors a stabilization absorbs before it fails with the last of them. Zero
+     * fails on the first one.
+     */
+    @lombok.Builder.Default
+    private final int transientErrorBudget = 5;
+
+    /**
+     * MaxResults of the ListRepositoryAssociations calls made by ListHandler, 1 to 100. Zero leaves the page size to
+     * the service.
+     */
+    @lombok.Builder.Default
+    private final int listPageSize = 0;
+
+    /**
+     * Time ListHandler may keep fetching further pages within one invocation before it hands the next token back.
+     * Zero returns exactly one service page per invocation.
+     */
+    @lombok.Builder.Default
+    private final Duration listAggregationBudget = Duration.ZERO;
+
+    /**
+     * Number of models after which ListHandler stops fetching further pages, keeping the response payload bounded.
+     */
+    @lombok.Builder.Default
+    private final int listAggregationMaxModels = 1000;
+
+    /**
+     * Fetch the tags of every listed association, which list summaries do not carry. Off by default, since it costs
+     * a ListTagsForResource call per association.
+     */
+    @lombok.Builder.Default
+    private final boolean listTagEnrichment = false;
+
+    /**
+     * Most ListTagsForResource calls ListHandler has in flight at once.
+     */
+    @lombok.Builder.Default
+    private final int listTagConcurrency = 8;
+
+    /**
+     * Most ListTagsForResource calls ListHandler starts per second.
+     */
+    @lombok.Builder.Default
+    private final int listTagRequestsPerSecond = 20;
+
+    /**
+     * Make ListHandler's calls through the async client, so list pages and tag lookups are in flight together
+     * without holding a thread each.
+     */
+    @lombok.Builder.Default
+    private final boolean asyncClient = false;
+
+    /**
+     * Number of SDK retries all calls in the container may make together in a burst, refilled at the same number per
+     * minute. Once spent, errors the SDK would have retried reach the handlers right away.
+     */
+    @lombok.Builder.Default
+    private final int sdkRetryBudget = 10;
+
+    /**
+     * Longest a single HTTP attempt of a service call may take before the SDK gives up on it. Zero, the default,
+     * leaves it unbounded, as the SDK does.
+     */
+    @lombok.Builder.Default
+    private final Duration sdkApiCallAttemptTimeout = Duration.ZERO;
+
+    /**
+     * Longest a service call may take including all its retries. Zero, the default, leaves it unbounded, as the SDK
+     * does.
+     */
+    @lombok.Builder.Default
+    private final Duration sdkApiCallTimeout = Duration.ZERO;
+
+    /**
+     * Most DescribeRepositoryAssociation calls the container starts per second. Zero leaves them unlimited.
+     */
+    @lombok.Builder.Default
+    private final int apiDescribeRequestsPerSecond = 0;
+
+    /**
+     * Most AssociateRepository, DisassociateRepository, TagResource and UntagResource calls the container starts per
+     * second. Zero leaves them unlimited.
+     */
+    @lombok.Builder.Default
+    private final int apiMutateRequestsPerSecond = 0;
+
+    /**
+     * Most ListRepositoryAssociations and ListTagsForResource calls the container starts per second. Zero leaves
+     * them unlimited.
+     */
+    @lombok.Builder.Default
+    private final int apiListRequestsPerSecond = 0;
+
+    /**
+     * Share of failed calls, 1 to 100 percent, at which the circuit breaker of a region opens. Zero turns the
+     * breaker off.
+     */
+    @lombok.Builder.Default
+    private final int circuitBreakerFailureRatePercent = 0;
+
+    /**
+     * Number of most recent calls the circuit breaker computes the failure rate over.
+     */
+    @lombok.Builder.Default
+    private final int circuitBreakerWindowCalls = 10;
+
+    /**
+     * How long an open circuit rejects calls before it lets a probe through.
+     */
+    @lombok.Builder.Default
+    private final Duration circuitBreakerOpenDuration = Duration.ofSeconds(60L);
+
+    /**
+     * Let concurrent handlers in the container that describe the same association share one
+     * DescribeRepositoryAssociation call. Off by default, because the shared call is made with the credentials of
+     * whichever handler asked first.
+     */
+    @lombok.Builder.Default
+    private final boolean coalesceDescribes = false;
+
+    /**
+     * While an association is associating or disassociating, learn its state from a ListRepositoryAssociations sweep
+     * shared by every stabilization in the container, and only describe it once the sweep no longer lists it. Off by
+     * default, for the same credential reason as {@link #coalesceDescribes}.
+     */
+    @lombok.Builder.Default
+    private final boolean batchStabilizationPolling = false;
+
+    /**
+     * How long a batched sweep answers later stabilization probes before a new sweep is made.
+     */
+    @lombok.Builder.Default
+    private final Duration batchSweepMaxAge = Duration.ofSeconds(2L);
+
+    /**
+     * Extra DescribeRepositoryAssociation calls, 1 to 100 percent of them, that may be sent to hedge describes slower
+     * than the learned p95. Zero turns hedging off.
+     */
+    @lombok.Builder.Default
+    private final int hedgeDescribeBudgetPercent = 0;
+
+    /**
+     * How long ReadHandler answers from the models it read before, instead of describing the association again. Zero
+     * turns the cache off, which is the default so contract tests always see the service. A cached model is returned
+     * without checking the credentials of the caller.
+     */
+    @lombok.Builder.Default
+    private final Duration readCacheTtl = Duration.ZERO;
+
+    /**
+     * Most models the read cache keeps; the least recently read is evicted first.
+     */
+    @lombok.Builder.Default
+    private final int readCacheMaxEntries = 256;
+
+    /**
+     * When AssociateRepository reports a conflict, look up the existing association for the same repository and
+     * continue with it instead of failing. The adopted association is given the tags of the model, and loses the tags
+     * the model does not declare. Off by default, because the adopted association may belong to another stack.
+     */
+    @lombok.Builder.Default
+    private final boolean adoptExistingAssociation = false;
+
+    /**
+     * Delete without describing the association first. DisassociateRepository reports a missing association as
+     * NotFound on its own, and its response carries the state the first stabilization probe would have read.
+     */
+    @lombok.Builder.Default
+    private final boolean singleRoundTripDelete = false;
+
+    static HandlerSettings fromEnvironment() {
+        return fromEnvironment(System.getenv());
+    }
+
+    static HandlerSettings fromEnvironment(final Map<String, String> environment) {
+        final HandlerSettingsBuilder builder = HandlerSettings.builder();
+        getSeconds(environment, CREATE_STABILIZATION_TIMEOUT_SECONDS).ifPresent(builder::createStabilizationTimeout);
+        getSeconds(environment, DELETE_STABILIZATION_TIMEOUT_SECONDS).ifPresent(builder::deleteStabilizationTimeout);
+        getSeconds(environment, IN_PROCESS_POLL_THRESHOLD_SECONDS).ifPresent(builder::inProcessPollThreshold);
+        getSeconds(environment, IN_PROCESS_STABILIZATION_BUDGET_SECONDS).ifPresent(builder::inProcessStabilizationBudget);
+        getLong(environment, TRANSIENT_ERROR_BUDGET)
+                .filter(budget -> budget >= 0 && budget <= Integer.MAX_VALUE)
+                .ifPresent(budget -> builder.transientErrorBudget(budget.intValue()));
+        getLong(environment, LIST_PAGE_SIZE)
+                .filter(pageSize -> pageSize >= 1 && pageSize <= 100)
+                .ifPresent(pageSize -> builder.listPageSize(pageSize.intValue()));
+        getSeconds(environment, LIST_AGGREGATION_BUDGET_SECONDS).ifPresent(builder::listAggregationBudget);
+        getLong(environment, LIST_AGGREGATION_MAX_MODELS)
+                .filter(maxModels -> maxModels >= 1 && maxModels <= Integer.MAX_VALUE)
+                .ifPresent(maxModels -> builder.listAggregationMaxModels(maxModels.intValue()));
+        getBoolean(environment, LIST_TAG_ENRICHMENT).ifPresent(builder::listTagEnrichment);
+        getLong(environment, LIST_TAG_CONCURRENCY)
+                .filter(concurrency -> concurrency >= 1 && concurrency <= 64)
+                .ifPresent(concurrency -> builder.listTagConcurrency(concurrency.intValue()));
+        getLong(environment, LIST_TAG_REQUESTS_PER_SECOND)
+                .filter(rate -> rate >= 1 && rate <= 1000)
+                .ifPresent(rate -> builder.listTagRequestsPerSecond(rate.intValue()));
+        getBoolean(environment, ASYNC_CLIENT).ifPresent(builder::asyncClient);
+        getLong(environment, SDK_RETRY_BUDGET)
+                .filter(budget -> budget >= 0 && budget <= Integer.MAX_VALUE)
+                .ifPresent(budget -> builder.sdkRetryBudget(budget.intValue()));
+        getSeconds(environment, SDK_API_CALL_ATTEMPT_TIMEOUT_SECONDS).ifPresent(builder::sdkApiCallAttemptTimeout);
+        getSeconds(environment, SDK_API_CALL_TIMEOUT_SECONDS).ifPresent(builder::sdkApiCallTimeout);
+        getLong(environment, API_DESCRIBE_REQUESTS_PER_SECOND)
+                .filter(rate -> rate >= 0 && rate <= 1000)
+                .ifPresent(rate -> builder.apiDescribeRequestsPerSecond(rate.intValue()));
+        getLong(environment, API_MUTATE_REQUESTS_PER_SECOND)
+                .filter(rate -> rate >= 0 && rate <= 1000)
+                .ifPresent(rate -> builder.apiMutateRequestsPerSecond(rate.intValue()));
+        getLong(environment, API_LIST_REQUESTS_PER_SECOND)
+                .filter(rate -> rate >= 0 && rate <= 1000)
+                .ifPresent(rate -> builder.apiListRequestsPerSecond(rate.intValue()));
+        getLong(environment, CIRCUIT_BREAKER_FAILURE_RATE_PERCENT)
+                .filter(percent -> percent >= 0 && percent <= 100)
+                .ifPresent(percent -> builder.circuitBreakerFailureRatePercent(percent.intValue()));
+        getLong(environment, CIRCUIT_BREAKER_WINDOW_CALLS)
+                .filter(calls -> calls >= 1 && calls <= 1000)
+                .ifPresent(calls -> builder.circuitBreakerWindowCalls(calls.intValue()));
+        getSeconds(environment, CIRCUIT_BREAKER_OPEN_SECONDS).ifPresent(builder::circuitBreakerOpenDuration);
+        getBoolean(environment, COALESCE_DESCRIBES).ifPresent(builder::coalesceDescribes);
+        getBoolean(environment, BATCH_STABILIZATION_POLLING).ifPresent(builder::batchStabilizationPolling);
+        getSeconds(environment, BATCH_SWEEP_MAX_AGE_SECONDS).ifPresent(builder::batchSweepMaxAge);
+        getLong(environment, HEDGE_DESCRIBE_BUDGET_PERCENT)
+                .filter(percent -> percent >= 0 && percent <= 100)
+                .ifPresent(percent -> builder.hedgeDescribeBudgetPercent(percent.intValue()));
+        getSeconds(environment, READ_CACHE_TTL_SECONDS).ifPresent(builder::readCacheTtl);
+        getLong(environment, READ_CACHE_MAX_ENTRIES)
+                .filter(entries -> entries >= 1 && entries <= 10000)
+                .ifPresent(entries -> builder.readCacheMaxEntries(entries.intValue()));
+        getBoolean(environment, ADOPT_EXISTING_ASSOCIATION).ifPresent(builder::adoptExistingAssociation);
+        getBoolean(environment, SINGLE_ROUND_TRIP_DELETE).ifPresent(builder::singleRoundTripDelete);
+        return builder.build();
+    }
+
+    private static Optional<Boolean> getBoolean(final Map<String, String> environment, final String name) {
+        final String value = environment.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(Boolean.parseBoolean(value.trim()));
+    }
+
+    private static Optional<Duration> getSeconds(final Map<String, String> environment, final String name) {
+        return getLong(environment, name).filter(seconds -> seconds >= 0).map(Duration::ofSeconds);
+    }
+
+    private static Optional<Long> getLong(final Map<String, String> environment, final String name) {
+        final String value = environment.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(value.trim()));
+        } catch (final NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
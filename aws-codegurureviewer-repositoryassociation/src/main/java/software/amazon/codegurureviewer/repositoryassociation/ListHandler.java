@@ -1,7 +1,10 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClient;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
@@ -9,8 +12,30 @@ import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public class ListHandler extends BaseHandlerStd{
 
+    public ListHandler() {
+        super();
+    }
+
+    ListHandler(final HandlerSettings settings) {
+        super(settings);
+    }
+
+    /**
+     * Returns one service page, or, with {@link HandlerSettings#getListAggregationBudget()} set, keeps fetching pages
+     * until the time budget or {@link HandlerSettings#getListAggregationMaxModels()} is reached and returns them
+     * together with the token of the first page not fetched. If the service throttles after some pages have been
+     * fetched, those are returned with their tags, the token to resume from and a message saying so. With
+     * {@link HandlerSettings#isAsyncClient()} the tags of a page are fetched while the next page is.
+     */
     @Override
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             AmazonWebServicesClientProxy proxy,
@@ -19,15 +44,128 @@ public class ListHandler extends BaseHandlerStd{
             ProxyClient<CodeGuruReviewerClient> proxyClient,
             Logger logger) {
 
-        final ListRepositoryAssociationsResponse response = proxy.injectCredentialsAndInvokeV2(
-                Translator.translateToLisRepositoryAssocationResquest(request.getNextToken()),
-                proxyClient.client()::listRepositoryAssociations);
+        final long deadline = System.currentTimeMillis() + settings.getListAggregationBudget().toMillis();
+        final List<ResourceModel> resourceModels = new ArrayList<>();
+        final ProxyClient<CodeGuruReviewerAsyncClient> asyncProxyClient =
+                settings.isAsyncClient() ? newAsyncProxyClient(proxy, request) : null;
+        final Function<String, ListRepositoryAssociationsRequest> pageRequest = token -> Translator
+                .translateToListRepositoryAssociationsRequest(request.getDesiredResourceState(), token,
+                        settings.getListPageSize());
+        final PrefetchingPaginator<ListRepositoryAssociationsResponse> paginator = asyncProxyClient != null
+                ? PrefetchingPaginator.ofAsync(token -> listPageAsync(pageRequest.apply(token), asyncProxyClient),
+                        request.getNextToken())
+                : new PrefetchingPaginator<>(token -> listPage(pageRequest.apply(token), proxyClient),
+                        request.getNextToken());
+        final TagEnricher tagEnricher = settings.isListTagEnrichment() ? new TagEnricher(settings, logger) : null;
+        final List<CompletableFuture<List<ResourceModel>>> pendingTags = new ArrayList<>();
+        String nextToken = request.getNextToken();
+        boolean morePages;
+        boolean throttled = false;
+        int pages = 0;
+
+        do {
+            final ListRepositoryAssociationsResponse response;
+            try {
+                response = paginator.next();
+            } catch (final CfnThrottlingException e) {
+                if (pages == 0) {
+                    throw e;
+                }
+                // nextToken still names the page that was throttled, so the caller resumes right there.
+                logger.log(String.format("Throttled after %d pages, returning %d %s models collected so far",
+                        pages, resourceModels.size(), ResourceModel.TYPE_NAME));
+                throttled = true;
+                break;
+            }
+            nextToken = response.nextToken();
+            pages++;
+            // Decide on the next page before translating this one, so the call is in flight while translating.
+            morePages = nextToken != null
+                    && System.currentTimeMillis() < deadline
+                    && resourceModels.size() + response.repositoryAssociationSummaries().size()
+                            < settings.getListAggregationMaxModels();
+            if (morePages) {
+                paginator.prefetch(nextToken);
+            }
+            final List<ResourceModel> pageModels = Translator
+                    .translateFromListRepositoryAssocationResponse(response.repositoryAssociationSummaries());
+            if (tagEnricher != null && asyncProxyClient != null) {
+                pendingTags.add(tagEnricher.enrichAsync(pageModels, asyncProxyClient));
+            }
+            resourceModels.addAll(pageModels);
+        } while (morePages);
+
+        // Models are never returned with their tags missing, even after a throttled page: a failed tag call fails
+        // the handler, and the caller lists again from its own nextToken.
+        final List<ResourceModel> listedModels;
+        if (tagEnricher == null) {
+            listedModels = resourceModels;
+        } else if (asyncProxyClient == null) {
+            listedModels = tagEnricher.enrich(resourceModels, proxyClient);
+        } else {
+            try {
+                CompletableFuture.allOf(pendingTags.toArray(new CompletableFuture<?>[0])).join();
+            } catch (final CompletionException e) {
+                throw ErrorClassifier.unwrap(e);
+            }
+            listedModels = pendingTags.stream()
+                    .flatMap(page -> page.join().stream())
+                    .collect(Collectors.toList());
+        }
+
+        if (pages > 1) {
+            logger.log(String.format("Aggregated %d %s models from %d pages", listedModels.size(),
+                    ResourceModel.TYPE_NAME, pages));
+        }
 
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
                 .status(OperationStatus.SUCCESS)
-                .resourceModels(Translator
-                        .translateFromListRepositoryAssocationResponse(response.repositoryAssociationSummaries()))
-                .nextToken(response.nextToken())
+                .resourceModels(listedModels)
+                .nextToken(nextToken)
+                .message(throttled ? "Throttled by the service; resume with nextToken." : null)
                 .build();
     }
+
+    /**
+     * Implement client invocation of the list request through the proxyClient, which is already initialised with
+     * caller credentials, correct region and retry settings
+     *
+     * @param listRepositoryAssociationsRequest the aws service request to list associations
+     * @param proxyClient                       the aws service client to make the call
+     * @return list resource response
+     */
+    private ListRepositoryAssociationsResponse listPage(
+            final ListRepositoryAssociationsRequest listRepositoryAssociationsRequest,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient) {
+        try {
+            return proxyClient.injectCredentialsAndInvokeV2(listRepositoryAssociationsRequest,
+                    proxyClient.client()::listRepositoryAssociations);
+        } catch (final RuntimeException e) {
+            throw ErrorClassifier.toHandlerException(e);
+        }
+    }
+
+    /**
+     * Async counterpart of {@link #listPage(ListRepositoryAssociationsRequest, ProxyClient)}.
+     *
+     * @param listRepositoryAssociationsRequest the aws service request to list associations
+     * @param asyncProxyClient                  the async aws service client to make the call
+     * @return list resource response, or the error as a handler exception
+     */
+    private CompletableFuture<ListRepositoryAssociationsResponse> listPageAsync(
+            final ListRepositoryAssociationsRequest listRepositoryAssociationsRequest,
+            final ProxyClient<CodeGuruReviewerAsyncClient> asyncProxyClient) {
+        final CompletableFuture<ListRepositoryAssociationsResponse> page = new CompletableFuture<>();
+        asyncProxyClient.injectCredentialsAndInvokeV2Async(listRepositoryAssociationsRequest,
+                asyncProxyClient.client()::listRepositoryAssociations)
+                .whenComplete((response, e) -> {
+                    if (e == null) {
+                        page.complete(response);
+                    } else {
+                        page.completeExceptionally(ErrorClassifier.toHandlerException(
+                                e instanceof CompletionException ? e.getCause() : e));
+                    }
+                });
+        return page;
+    }
 }
@@ -0,0 +1,77 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Pages through a token-paginated API with one request in flight ahead of the caller. As soon as a page's next
+ * token is known the caller can {@link #prefetch(String)} the following page, then process the current page while
+ * that call is outstanding. The first page is fetched on the calling thread, unless the pages come from an async
+ * client, see {@link #ofAsync(Function, String)}.
+ *
+ * @param <PageT> page type
+ */
+final class PrefetchingPaginator<PageT> {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "list-page-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<String, CompletableFuture<PageT>> startFetch;
+    private CompletableFuture<PageT> pending;
+
+    /**
+     * @param fetchPage fetches the page for a token, null for the first page
+     * @param firstToken token of the first page to fetch
+     */
+    PrefetchingPaginator(final Function<String, PageT> fetchPage, final String firstToken) {
+        this(CompletableFuture.completedFuture(fetchPage.apply(firstToken)),
+                token -> CompletableFuture.supplyAsync(() -> fetchPage.apply(token), EXECUTOR));
+    }
+
+    private PrefetchingPaginator(
+            final CompletableFuture<PageT> first,
+            final Function<String, CompletableFuture<PageT>> startFetch) {
+        this.startFetch = startFetch;
+        this.pending = first;
+    }
+
+    /**
+     * Pages through an API whose calls already return futures, so no thread is spent waiting on them.
+     *
+     * @param startFetch starts fetching the page for a token, null for the first page
+     * @param firstToken token of the first page to fetch
+     * @param <PageT>    page type
+     * @return paginator with the first page in flight
+     */
+    static <PageT> PrefetchingPaginator<PageT> ofAsync(
+            final Function<String, CompletableFuture<PageT>> startFetch,
+            final String firstToken) {
+        return new PrefetchingPaginator<>(startFetch.apply(firstToken), startFetch);
+    }
+
+    /**
+     * Starts fetching the page for the token in the background.
+     *
+     * @param nextToken token of the page to fetch
+     */
+    void prefetch(final String nextToken) {
+        pending = startFetch.apply(nextToken);
+    }
+
+    /**
+     * @return the page fetched last, waiting for it if it is still in flight
+     */
+    PageT next() {
+        try {
+            return pending.join();
+        } catch (final CompletionException e) {
+            throw ErrorClassifier.unwrap(e);
+        }
+    }
+}
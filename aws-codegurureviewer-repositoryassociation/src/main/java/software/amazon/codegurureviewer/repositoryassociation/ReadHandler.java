@@ -14,6 +14,14 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 public class ReadHandler extends BaseHandlerStd {
     private Logger logger;
 
+    public ReadHandler() {
+        super();
+    }
+
+    ReadHandler(final HandlerSettings settings) {
+        super(settings);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -27,10 +35,16 @@ public class ReadHandler extends BaseHandlerStd {
         if (StringUtils.isNullOrEmpty(model.getAssociationArn())) {
             throw new CfnNotFoundException(ResourceModel.TYPE_NAME, null);
         }
+        final ResourceModel cachedModel = ReadModelCache.shared(settings).get(model.getAssociationArn());
+        if (cachedModel != null) {
+            logger.log(String.format("%s [%s] read from cache.", ResourceModel.TYPE_NAME, model.getAssociationArn()));
+            return ProgressEvent.defaultSuccessHandler(cachedModel);
+        }
 
         return proxy.initiate("AWS-CodeGuruReviewer-RepositoryAssociation::Read", proxyClient, model, callbackContext)
                 .translateToServiceRequest(Translator::translateToDescribeRepositoryAssociationRequest)
-                .makeServiceCall((awsRequest, sdkProxyClient) -> readResource(awsRequest, sdkProxyClient , model))
+                .makeServiceCall((awsRequest, sdkProxyClient) -> readResource(awsRequest, sdkProxyClient, model,
+                        CodeGuruReviewerClientBuilder.regionOf(request), logger))
                 .done(this::constructResourceModelFromResponse);
     }
 
@@ -39,14 +53,19 @@ public class ReadHandler extends BaseHandlerStd {
      * caller credentials, correct region and retry settings
      * @param describeRepositoryAssociationRequest the aws service request to describe a resource
      * @param proxyClient the aws service client to make the call
+     * @param region the region the client calls
+     * @param logger the logger of the invocation
      * @return describe resource response
      */
     private DescribeRepositoryAssociationResponse readResource(
             final DescribeRepositoryAssociationRequest describeRepositoryAssociationRequest,
             final ProxyClient<CodeGuruReviewerClient> proxyClient,
-            final ResourceModel model) {
+            final ResourceModel model,
+            final String region,
+            final Logger logger) {
 
-        DescribeRepositoryAssociationResponse awsResponse = describeRepositoryAssociation(describeRepositoryAssociationRequest, proxyClient, model);
+        DescribeRepositoryAssociationResponse awsResponse = describeRepositoryAssociation(
+                describeRepositoryAssociationRequest, proxyClient, model, region, logger);
         logger.log(String.format("DescribeRepositoryAssociation response: %s", awsResponse.toString()));
         logger.log(String.format("%s has successfully been read.", ResourceModel.TYPE_NAME));
 
@@ -61,6 +80,7 @@ public class ReadHandler extends BaseHandlerStd {
      */
     private ProgressEvent<ResourceModel, CallbackContext> constructResourceModelFromResponse(
             final DescribeRepositoryAssociationResponse awsResponse) {
+        ReadModelCache.shared(settings).put(awsResponse);
         return ProgressEvent.defaultSuccessHandler(Translator.translateFromReadResponse(awsResponse));
     }
 }
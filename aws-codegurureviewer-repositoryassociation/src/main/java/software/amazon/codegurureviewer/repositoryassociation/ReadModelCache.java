@@ -0,0 +1,110 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the describes ReadHandler made, by association ARN, so repeated reads of the same association within
+ * {@link HandlerSettings#getReadCacheTtl()} skip DescribeRepositoryAssociation. At most
+ * {@link HandlerSettings#getReadCacheMaxEntries()} describes are kept; the least recently read is evicted first.
+ * <p>
+ * Models are mutable, so the cache keeps the immutable response and translates it into a new model on every read;
+ * a caller changing the model it got cannot change what later reads get.
+ * <p>
+ * Create, Update and Delete invalidate the association they change, so a read in the same container never sees a
+ * model older than the last change made through it. Changes made outside the container are seen once the entry
+ * expires.
+ */
+final class ReadModelCache {
+
+    private static final ConcurrentMap<List<Object>, ReadModelCache> SHARED = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+
+    ReadModelCache(final Duration ttl, final int maxEntries, final LongSupplier clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param settings time to live and size of the cache
+     * @return the cache of the container
+     */
+    static ReadModelCache shared(final HandlerSettings settings) {
+        return SHARED.computeIfAbsent(Arrays.asList(settings.getReadCacheTtl(), settings.getReadCacheMaxEntries()),
+                key -> new ReadModelCache(settings.getReadCacheTtl(), settings.getReadCacheMaxEntries(),
+                        System::currentTimeMillis));
+    }
+
+    /**
+     * @param associationArn association to look up
+     * @return a new model of the association as read last, or null if there is no read younger than the time to
+     * live
+     */
+    synchronized ResourceModel get(final String associationArn) {
+        if (ttlMillis == 0L || associationArn == null) {
+            return null;
+        }
+        final Entry entry = entries.get(associationArn);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() >= entry.expiresAt) {
+            entries.remove(associationArn);
+            return null;
+        }
+        return Translator.translateFromReadResponse(entry.awsResponse);
+    }
+
+    /**
+     * @param awsResponse association as described by the service
+     */
+    synchronized void put(final DescribeRepositoryAssociationResponse awsResponse) {
+        final String associationArn = awsResponse.repositoryAssociation().associationArn();
+        if (ttlMillis == 0L || associationArn == null) {
+            return;
+        }
+        entries.put(associationArn, new Entry(awsResponse, clock.getAsLong() + ttlMillis));
+    }
+
+    /**
+     * @param associationArn association that is being changed
+     */
+    synchronized void invalidate(final String associationArn) {
+        if (associationArn != null) {
+            entries.remove(associationArn);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final DescribeRepositoryAssociationResponse awsResponse;
+        private final long expiresAt;
+
+        private Entry(final DescribeRepositoryAssociationResponse awsResponse, final long expiresAt) {
+            this.awsResponse = awsResponse;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
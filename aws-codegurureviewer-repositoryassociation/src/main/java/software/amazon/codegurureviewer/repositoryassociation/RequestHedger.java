@@ -0,0 +1,198 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cuts the tail latency of read-only calls to a region. Once a call has taken longer than the 95th percentile of
+ * the last {@link #LATENCY_WINDOW} successful calls, an identical second call is sent and whichever succeeds first
+ * answers; the slower one is left to finish in the background.
+ * <p>
+ * Hedges are paid for out of a budget that every call adds
+ * {@link HandlerSettings#getHedgeDescribeBudgetPercent()} percent of a hedge to, up to {@link #MAX_BANKED_HEDGES}, so
+ * hedging adds at most that share of extra load. Nothing is hedged until {@link #MIN_SAMPLES} latencies are known.
+ * Each hedge is written to the log of the invocation that sent it as the CloudWatch embedded metrics HedgeFired, and
+ * HedgeWon when the hedge answered first, by Region.
+ */
+final class RequestHedger {
+
+    static final int LATENCY_WINDOW = 100;
+    static final int MIN_SAMPLES = 20;
+    static final int MAX_BANKED_HEDGES = 10;
+
+    private static final ConcurrentMap<List<Object>, RequestHedger> SHARED = new ConcurrentHashMap<>();
+    private static final RequestHedger DISABLED = new RequestHedger(CodeGuruReviewerClientBuilder.DEFAULT_REGION, 0,
+            System::currentTimeMillis);
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "describe-hedge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String region;
+    private final int budgetPercent;
+    private final LongSupplier clock;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int samples;
+    private int nextSample;
+    private int budgetCredit;
+
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    RequestHedger(final String region, final int budgetPercent, final LongSupplier clock) {
+        this.region = region;
+        this.budgetPercent = budgetPercent;
+        this.clock = clock;
+    }
+
+    /**
+     * @param region   region the calls go to
+     * @param settings hedge budget
+     * @return the hedger of the container for the region, or one that never hedges if hedging is turned off
+     */
+    static RequestHedger forRegion(final String region, final HandlerSettings settings) {
+        if (settings.getHedgeDescribeBudgetPercent() == 0) {
+            return DISABLED;
+        }
+        return SHARED.computeIfAbsent(Arrays.asList(region, settings.getHedgeDescribeBudgetPercent()),
+                key -> new RequestHedger(region, settings.getHedgeDescribeBudgetPercent(), System::currentTimeMillis));
+    }
+
+    /**
+     * @param call      read-only service call, safe to make twice
+     * @param logger    logger of the invocation making the call, which its hedge is written to
+     * @param <ResultT> result type
+     * @return result of the first copy of the call to succeed, or the error of the first copy if neither does
+     */
+    <ResultT> ResultT call(final Supplier<ResultT> call, final Logger logger) {
+        if (budgetPercent == 0) {
+            return call.get();
+        }
+        final long hedgeAfterMillis = deposit();
+        if (hedgeAfterMillis < 0L) {
+            return timed(call).get();
+        }
+
+        final CompletableFuture<ResultT> primary = CompletableFuture.supplyAsync(timed(call), EXECUTOR);
+        try {
+            return primary.get(hedgeAfterMillis, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            // Slower than the learned p95, hedge below if the budget allows.
+        } catch (final ExecutionException e) {
+            return join(primary);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return join(primary);
+        }
+        if (!withdraw()) {
+            return join(primary);
+        }
+
+        hedgesFired.incrementAndGet();
+        final CompletableFuture<ResultT> hedge = CompletableFuture.supplyAsync(timed(call), EXECUTOR);
+        final CompletableFuture<ResultT> winner = new CompletableFuture<>();
+        final AtomicBoolean decided = new AtomicBoolean();
+        primary.thenAccept(result -> {
+            if (decided.compareAndSet(false, true)) {
+                emit(false, logger);
+                winner.complete(result);
+            }
+        });
+        hedge.thenAccept(result -> {
+            if (decided.compareAndSet(false, true)) {
+                hedgesWon.incrementAndGet();
+                emit(true, logger);
+                winner.complete(result);
+            }
+        });
+        CompletableFuture.allOf(primary, hedge).whenComplete((ignored, e) -> {
+            if (primary.isCompletedExceptionally() && hedge.isCompletedExceptionally()
+                    && decided.compareAndSet(false, true)) {
+                emit(false, logger);
+                primary.whenComplete((result, primaryError) -> winner.completeExceptionally(primaryError));
+            }
+        });
+        return join(winner);
+    }
+
+    long getHedgesFired() {
+        return hedgesFired.get();
+    }
+
+    long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * Credits the budget for the call.
+     *
+     * @return how long the call may take before it is hedged, negative while too few latencies are known or the budget
+     *         cannot pay for a hedge
+     */
+    private synchronized long deposit() {
+        budgetCredit = Math.min(budgetCredit + budgetPercent, MAX_BANKED_HEDGES * 100);
+        if (samples < MIN_SAMPLES || budgetCredit < 100) {
+            return -1L;
+        }
+        final long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(samples * 0.95) - 1];
+    }
+
+    private synchronized boolean withdraw() {
+        if (budgetCredit < 100) {
+            return false;
+        }
+        budgetCredit -= 100;
+        return true;
+    }
+
+    private synchronized void recordLatency(final long millis) {
+        latencies[nextSample] = millis;
+        nextSample = (nextSample + 1) % LATENCY_WINDOW;
+        samples = Math.min(samples + 1, LATENCY_WINDOW);
+    }
+
+    private <ResultT> Supplier<ResultT> timed(final Supplier<ResultT> call) {
+        return () -> {
+            final long start = clock.getAsLong();
+            final ResultT result = call.get();
+            recordLatency(clock.getAsLong() - start);
+            return result;
+        };
+    }
+
+    private void emit(final boolean won, final Logger logger) {
+        final Map<String, Integer> metrics = new LinkedHashMap<>();
+        metrics.put("HedgeFired", 1);
+        metrics.put("HedgeWon", won ? 1 : 0);
+        EmbeddedMetrics.emit(logger, clock.getAsLong(), region, "Count", metrics);
+    }
+
+    private static <ResultT> ResultT join(final CompletableFuture<ResultT> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            throw ErrorClassifier.unwrap(e);
+        }
+    }
+}
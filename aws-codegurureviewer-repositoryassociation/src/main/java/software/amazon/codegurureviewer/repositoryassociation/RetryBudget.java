@@ -0,0 +1,67 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the SDK retries of all calls made in the container. Each call already retries a few times on its own; without
+ * a shared cap, invocations making many calls against a struggling service multiply its load instead of backing off.
+ * The budget is a token bucket that refills over time rather than per invocation, so concurrent invocations draw from
+ * the same retries and none of them can hand the others a fresh budget.
+ */
+final class RetryBudget implements RetryCondition {
+
+    /**
+     * Time it takes an empty budget to refill completely.
+     */
+    static final Duration REFILL_PERIOD = Duration.ofMinutes(1L);
+
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param retries retries available in a burst, and refilled every {@link #REFILL_PERIOD}
+     */
+    RetryBudget(final int retries) {
+        this(retries, System::nanoTime);
+    }
+
+    RetryBudget(final int retries, final LongSupplier nanoClock) {
+        this.capacity = retries;
+        this.nanoClock = nanoClock;
+        this.tokens = retries;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return whole retries left in the budget
+     */
+    synchronized int remaining() {
+        refill();
+        return (int) tokens;
+    }
+
+    /**
+     * Spends one retry if any is left. Only asked once the other retry conditions have allowed the retry.
+     */
+    @Override
+    public synchronized boolean shouldRetry(final RetryPolicyContext context) {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private void refill() {
+        final long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * capacity / REFILL_PERIOD.toNanos());
+        lastRefillNanos = now;
+    }
+}
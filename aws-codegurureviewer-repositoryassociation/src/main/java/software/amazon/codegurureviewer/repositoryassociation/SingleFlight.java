@@ -0,0 +1,52 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers asking for the same key share one call. The first caller makes the call; callers arriving
+ * while it is in flight wait for it and get the same result or error. Nothing is kept once the call completes, so a
+ * caller never sees a result that was obtained before it asked.
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key  what the call is about
+     * @param call the call to make if none is in flight for the key
+     * @return result of the call in flight for the key
+     */
+    V execute(final K key, final Supplier<V> call) {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw ErrorClassifier.unwrap(e);
+            }
+        }
+
+        try {
+            final V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (final Throwable e) {
+            // Errors too, or the callers waiting for the flight would wait forever.
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+}
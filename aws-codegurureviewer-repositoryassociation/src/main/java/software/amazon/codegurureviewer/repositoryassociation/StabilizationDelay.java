@@ -0,0 +1,141 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+import software.amazon.cloudformation.proxy.Delay;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential stabilization backoff with jitter. The first probe is short so that fast associations finish as soon
+ * as the service does, later probes back off towards a cap, and the schedule gives up once the accrued delay reaches
+ * the timeout.
+ */
+@lombok.Getter
+@lombok.Builder(toBuilder = true)
+class StabilizationDelay implements Delay {
+
+    private static final Duration MIN_DELAY = Duration.ofSeconds(1L);
+
+    private final Duration firstDelay;
+    private final Duration baseDelay;
+    private final double multiplier;
+    private final Duration maxDelay;
+    private final Duration timeout;
+
+    /**
+     * Fraction of each delay that is randomized, so associations created together do not poll in lockstep.
+     */
+    @lombok.Builder.Default
+    private final double jitter = 0.2d;
+
+    /**
+     * Picks the schedule for waiting on the given transitional state. Third-party providers go through a connection
+     * and usually take minutes to associate, so they start slower and back off further than CodeCommit or S3.
+     *
+     * @param state        the transitional state being waited on
+     * @param providerType the provider type of the association, may be null
+     * @param timeout      total time to wait before giving up
+     * @return delay schedule
+     */
+    static StabilizationDelay forState(
+            final RepositoryAssociationState state,
+            final ProviderType providerType,
+            final Duration timeout) {
+        final StabilizationDelayBuilder builder = StabilizationDelay.builder().timeout(timeout);
+        if (RepositoryAssociationState.DISASSOCIATING.equals(state)) {
+            return builder
+                    .firstDelay(Duration.ofSeconds(2L))
+                    .baseDelay(Duration.ofSeconds(5L))
+                    .multiplier(2d)
+                    .maxDelay(Duration.ofSeconds(30L))
+                    .build();
+        }
+        if (isThirdPartyProvider(providerType)) {
+            return builder
+                    .firstDelay(Duration.ofSeconds(5L))
+                    .baseDelay(Duration.ofSeconds(10L))
+                    .multiplier(2d)
+                    .maxDelay(Duration.ofSeconds(60L))
+                    .build();
+        }
+        return builder
+                .firstDelay(Duration.ofSeconds(2L))
+                .baseDelay(Duration.ofSeconds(3L))
+                .multiplier(1.5d)
+                .maxDelay(Duration.ofSeconds(15L))
+                .build();
+    }
+
+    /**
+     * Schedule for retrying a probe that failed with a transient error. It backs off faster than the state schedules,
+     * since the service is asking callers to slow down, and is bounded by the error budget rather than by time.
+     *
+     * @return delay schedule
+     */
+    static StabilizationDelay forTransientErrors() {
+        return StabilizationDelay.builder()
+                .firstDelay(Duration.ofSeconds(1L))
+                .baseDelay(Duration.ofSeconds(2L))
+                .multiplier(2d)
+                .maxDelay(Duration.ofSeconds(20L))
+                .timeout(Duration.ofHours(1L))
+                .build();
+    }
+
+    private static boolean isThirdPartyProvider(final ProviderType providerType) {
+        return ProviderType.BITBUCKET.equals(providerType)
+                || ProviderType.GIT_HUB.equals(providerType)
+                || ProviderType.GIT_HUB_ENTERPRISE_SERVER.equals(providerType);
+    }
+
+    /**
+     * @param attempt stabilization attempt, starting with 1
+     * @return the jittered delay before the next probe, or {@link Duration#ZERO} once the timeout is reached
+     */
+    @Override
+    public Duration nextDelay(final int attempt) {
+        if (accruedDelay(attempt).compareTo(timeout) >= 0) {
+            return Duration.ZERO;
+        }
+        return applyJitter(scheduledDelay(attempt));
+    }
+
+    /**
+     * @param attempt stabilization attempt, starting with 1
+     * @return the delay before the next probe without jitter
+     */
+    Duration scheduledDelay(final int attempt) {
+        if (attempt <= 1) {
+            return firstDelay;
+        }
+        Duration delay = baseDelay;
+        for (int i = 2; i < attempt && delay.compareTo(maxDelay) < 0; i++) {
+            delay = Duration.ofMillis((long) (delay.toMillis() * multiplier));
+        }
+        return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+    }
+
+    /**
+     * The accrued delay is computed from the schedule rather than measured, so it stays the same when the
+     * stabilization continues in a later invocation.
+     */
+    private Duration accruedDelay(final int attempt) {
+        Duration accrued = Duration.ZERO;
+        for (int i = 1; i < attempt; i++) {
+            accrued = accrued.plus(scheduledDelay(i));
+        }
+        return accrued;
+    }
+
+    private Duration applyJitter(final Duration delay) {
+        final long spread = (long) (delay.toMillis() * jitter);
+        final long jittered = spread > 0
+                ? delay.toMillis() - spread + ThreadLocalRandom.current().nextLong(2 * spread + 1)
+                : delay.toMillis();
+        // The handlers can only wait in whole seconds.
+        final Duration rounded = Duration.ofSeconds(Math.round(jittered / 1000d));
+        return rounded.compareTo(MIN_DELAY) < 0 ? MIN_DELAY : rounded;
+    }
+}
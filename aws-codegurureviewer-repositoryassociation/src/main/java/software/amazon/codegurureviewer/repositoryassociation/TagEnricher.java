@@ -0,0 +1,161 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClient;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ResourceNotFoundException;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Adds tags to listed models, which list summaries do not carry. Tags are fetched with ListTagsForResource, at most
+ * {@link HandlerSettings#getListTagConcurrency()} at a time and no faster than
+ * {@link HandlerSettings#getListTagRequestsPerSecond()}. The async variant keeps the calls in flight on the async
+ * client instead of on a thread pool, so the caller can carry on, e.g. with the next list page, while they run. It
+ * still starts the calls on the calling thread, which blocks while the rate limit or the concurrency cap holds a call
+ * back.
+ * <p>
+ * An association disassociated since it was listed has no tags to fetch; it is left out of the enriched models
+ * rather than returned without its tags.
+ */
+class TagEnricher {
+
+    private final int concurrency;
+    private final TokenBucket rateLimiter;
+    private final Semaphore inFlight;
+    private final Logger logger;
+
+    TagEnricher(final HandlerSettings settings, final Logger logger) {
+        this.concurrency = settings.getListTagConcurrency();
+        this.rateLimiter = new TokenBucket(settings.getListTagRequestsPerSecond(), concurrency);
+        this.inFlight = new Semaphore(concurrency);
+        this.logger = logger;
+    }
+
+    /**
+     * @param resourceModels listed models, updated in place
+     * @param proxyClient    the aws service client to make the calls
+     * @return the same models with their tags, less the ones that no longer exist
+     */
+    List<ResourceModel> enrich(
+            final List<ResourceModel> resourceModels,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient) {
+        if (resourceModels.isEmpty()) {
+            return resourceModels;
+        }
+
+        final Set<String> gone = ConcurrentHashMap.newKeySet();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, resourceModels.size()));
+        try {
+            final List<CompletableFuture<Void>> futures = resourceModels.stream()
+                    .map(model -> CompletableFuture.runAsync(() -> addTags(model, proxyClient, gone), executor))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (final CompletionException e) {
+            throw ErrorClassifier.unwrap(e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logger.log(String.format("Fetched tags of %d %s models", resourceModels.size(), ResourceModel.TYPE_NAME));
+        return withoutGone(resourceModels, gone);
+    }
+
+    /**
+     * Starts fetching the tags of the models and returns without waiting for the responses. This blocks the calling
+     * thread until the last call has been started, i.e. while the rate limit or the
+     * {@link HandlerSettings#getListTagConcurrency()} calls already in flight hold it back.
+     *
+     * @param resourceModels   listed models, updated in place once their tags arrive
+     * @param asyncProxyClient the async aws service client to make the calls
+     * @return completes with the models that still exist once every one has its tags, or with the first error as a
+     * handler exception
+     */
+    CompletableFuture<List<ResourceModel>> enrichAsync(
+            final List<ResourceModel> resourceModels,
+            final ProxyClient<CodeGuruReviewerAsyncClient> asyncProxyClient) {
+        final Set<String> gone = ConcurrentHashMap.newKeySet();
+        final List<CompletableFuture<Void>> futures = resourceModels.stream()
+                .map(model -> addTagsAsync(model, asyncProxyClient, gone))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    logger.log(String.format("Fetched tags of %d %s models", resourceModels.size(),
+                            ResourceModel.TYPE_NAME));
+                    return withoutGone(resourceModels, gone);
+                });
+    }
+
+    private void addTags(
+            final ResourceModel model,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final Set<String> gone) {
+        rateLimiter.acquire();
+        try {
+            final ListTagsForResourceResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                    Translator.translateToListTagsForResourceRequest(model),
+                    proxyClient.client()::listTagsForResource);
+            model.setTags(Translator.translateFromTags(awsResponse.tags()));
+        } catch (final RuntimeException e) {
+            handleError(model, e, gone);
+        }
+    }
+
+    private CompletableFuture<Void> addTagsAsync(
+            final ResourceModel model,
+            final ProxyClient<CodeGuruReviewerAsyncClient> asyncProxyClient,
+            final Set<String> gone) {
+        rateLimiter.acquire();
+        inFlight.acquireUninterruptibly();
+        final CompletableFuture<ListTagsForResourceResponse> call;
+        try {
+            call = asyncProxyClient.injectCredentialsAndInvokeV2Async(
+                    Translator.translateToListTagsForResourceRequest(model),
+                    asyncProxyClient.client()::listTagsForResource);
+        } catch (final RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        return call.handle((awsResponse, e) -> {
+            inFlight.release();
+            if (e == null) {
+                model.setTags(Translator.translateFromTags(awsResponse.tags()));
+            } else {
+                handleError(model, e instanceof CompletionException ? e.getCause() : e, gone);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Notes associations that are gone, and fails the enrichment on anything else.
+     */
+    private void handleError(final ResourceModel model, final Throwable e, final Set<String> gone) {
+        if (!(e instanceof ResourceNotFoundException)) {
+            throw ErrorClassifier.toHandlerException(e);
+        }
+        // Disassociated since it was listed.
+        logger.log(String.format("%s [%s] not found while fetching its tags", ResourceModel.TYPE_NAME,
+                model.getAssociationArn()));
+        gone.add(model.getAssociationArn());
+    }
+
+    private static List<ResourceModel> withoutGone(final List<ResourceModel> resourceModels, final Set<String> gone) {
+        if (gone.isEmpty()) {
+            return resourceModels;
+        }
+        return resourceModels.stream()
+                .filter(model -> !gone.contains(model.getAssociationArn()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,67 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket rate limiter. Callers that find the bucket empty reserve the next token anyway and wait until it
+ * would have been refilled, so a burst of callers is spread over time rather than retried. Reservations are taken
+ * under a fair lock, so callers that contend for it reserve, and are then released, in the order they arrived.
+ */
+final class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond refill rate
+     * @param capacity         largest burst allowed after the bucket has been idle
+     */
+    TokenBucket(final double permitsPerSecond, final double capacity) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("TokenBucket needs a positive rate and a capacity of at least 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting for it if the bucket is empty.
+     */
+    void acquire() {
+        final long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CfnInternalFailureException(e);
+        }
+    }
+
+    /**
+     * @return how long the caller has to wait for the token it took, in nanoseconds
+     */
+    long reserve() {
+        lock.lock();
+        try {
+            final long now = System.nanoTime();
+            tokens = Math.min(capacity,
+                    tokens + (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0L : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
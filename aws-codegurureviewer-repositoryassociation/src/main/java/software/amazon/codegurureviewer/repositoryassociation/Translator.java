@@ -8,17 +8,29 @@ import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepository
 import software.amazon.awssdk.services.codegurureviewer.model.DisassociateRepositoryRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
 import software.amazon.awssdk.services.codegurureviewer.model.Repository;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
+import software.amazon.awssdk.services.codegurureviewer.model.TagResourceRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ThirdPartySourceRepository;
+import software.amazon.awssdk.services.codegurureviewer.model.UntagResourceRequest;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -31,6 +43,8 @@ import java.util.stream.Stream;
 
 public final class Translator {
 
+    private static final Pattern CLIENT_REQUEST_TOKEN_PATTERN = Pattern.compile("^[\\w-]{1,64}$");
+
     /**
      * Request to create a resource
      *
@@ -38,6 +52,20 @@ public final class Translator {
      * @return awsRequest the aws service request to create a resource
      */
     static AssociateRepositoryRequest translateToAssociateRepositoryRequest(final ResourceModel model) {
+        return translateToAssociateRepositoryRequest(model, null);
+    }
+
+    /**
+     * Request to create a resource. Retries of the same CloudFormation request send the same client request token,
+     * so the service returns the association it already created instead of a ConflictException.
+     *
+     * @param model              resource model
+     * @param clientRequestToken client request token of the CloudFormation request
+     * @return awsRequest the aws service request to create a resource
+     */
+    static AssociateRepositoryRequest translateToAssociateRepositoryRequest(
+            final ResourceModel model,
+            final String clientRequestToken) {
         Repository repository = null;
         ProviderType providerType = ProviderType.fromValue(model.getType());
         switch(providerType) {
@@ -57,15 +85,32 @@ public final class Translator {
                 throw new CfnInvalidRequestException(String.format("Unknown Type of %s", providerType));
         }
 
+        final AssociateRepositoryRequest.Builder requestBuilder = AssociateRepositoryRequest.builder()
+                .repository(repository)
+                .clientRequestToken(toIdempotencyToken(clientRequestToken));
         final Optional<Map<String, String>> tags = getTagsFromModel(model);
         if(tags.isPresent()) {
-            return AssociateRepositoryRequest.builder()
-                    .repository(repository)
-                    .tags(tags.get())
-                    .build();
+            requestBuilder.tags(tags.get());
         }
 
-        return AssociateRepositoryRequest.builder().repository(repository).build();
+        return requestBuilder.build();
+    }
+
+    /**
+     * AssociateRepository accepts tokens of up to 64 word characters or hyphens. CloudFormation tokens normally fit
+     * as they are; anything else is mapped to a name-based UUID so that the token stays stable across retries.
+     *
+     * @param clientRequestToken client request token of the CloudFormation request
+     * @return idempotency token for AssociateRepository, or null when there is none
+     */
+    static String toIdempotencyToken(final String clientRequestToken) {
+        if (StringUtils.isNullOrEmpty(clientRequestToken)) {
+            return null;
+        }
+        if (CLIENT_REQUEST_TOKEN_PATTERN.matcher(clientRequestToken).matches()) {
+            return clientRequestToken;
+        }
+        return UUID.nameUUIDFromBytes(clientRequestToken.getBytes(StandardCharsets.UTF_8)).toString();
     }
 
     static Repository getS3BucketRepository(final ResourceModel model) {
@@ -116,28 +161,183 @@ public final class Translator {
                 && awsResponse.repositoryAssociation().s3RepositoryDetails() != null) {
             resourceModelBuilder.bucketName(awsResponse.repositoryAssociation().s3RepositoryDetails().bucketName());
         }
-        Map<String, String> tags = awsResponse.tags();
-        if(!tags.isEmpty()) {
-            resourceModelBuilder.tags(tags.entrySet()
-                    .stream()
-                    .map(tag -> new Tag(tag.getKey(), tag.getValue()))
-                    .collect(Collectors.toList()));
-        }
+        resourceModelBuilder.tags(translateFromTags(awsResponse.tags()));
         return resourceModelBuilder.build();
     }
 
+    /**
+     * @param tags tags as returned by the service
+     * @return tags of the resource model, or null when there are none
+     */
+    static List<Tag> translateFromTags(final Map<String, String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        return tags.entrySet()
+                .stream()
+                .map(tag -> new Tag(tag.getKey(), tag.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    static ListTagsForResourceRequest translateToListTagsForResourceRequest(final ResourceModel model) {
+        return ListTagsForResourceRequest.builder()
+                .resourceArn(model.getAssociationArn())
+                .build();
+    }
+
     static DisassociateRepositoryRequest translateToDisassociateRepositoryRequest(final ResourceModel model) {
         return DisassociateRepositoryRequest.builder()
                 .associationArn(model.getAssociationArn())
                 .build();
     }
 
+    /**
+     * Request to add or overwrite tags of an association
+     *
+     * @param model resource model
+     * @param tags  tags to add or overwrite
+     * @return awsRequest the aws service request to tag the association
+     */
+    static TagResourceRequest translateToTagResourceRequest(final ResourceModel model, final Map<String, String> tags) {
+        return TagResourceRequest.builder()
+                .resourceArn(model.getAssociationArn())
+                .tags(tags)
+                .build();
+    }
+
+    /**
+     * Request to remove tags from an association
+     *
+     * @param model   resource model
+     * @param tagKeys keys of the tags to remove
+     * @return awsRequest the aws service request to untag the association
+     */
+    static UntagResourceRequest translateToUntagResourceRequest(final ResourceModel model, final Set<String> tagKeys) {
+        return UntagResourceRequest.builder()
+                .resourceArn(model.getAssociationArn())
+                .tagKeys(tagKeys)
+                .build();
+    }
+
+    /**
+     * @param previousModel resource model before the update, may be null
+     * @param desiredModel  resource model after the update
+     * @return tags that are new or have a new value in the desired model
+     */
+    static Map<String, String> getTagsToAdd(final ResourceModel previousModel, final ResourceModel desiredModel) {
+        final Map<String, String> previousTags = getTagMap(previousModel);
+        final Map<String, String> tagsToAdd = new HashMap<>(getTagMap(desiredModel));
+        tagsToAdd.entrySet().removeIf(tag -> Objects.equals(tag.getValue(), previousTags.get(tag.getKey())));
+        return tagsToAdd;
+    }
+
+    /**
+     * @param previousModel resource model before the update, may be null
+     * @param desiredModel  resource model after the update
+     * @return keys of the tags that are no longer in the desired model
+     */
+    static Set<String> getTagKeysToRemove(final ResourceModel previousModel, final ResourceModel desiredModel) {
+        final Map<String, String> desiredTags = getTagMap(desiredModel);
+        return getTagMap(previousModel).keySet()
+                .stream()
+                .filter(key -> !desiredTags.containsKey(key))
+                .collect(Collectors.toSet());
+    }
+
     static ListRepositoryAssociationsRequest translateToLisRepositoryAssocationResquest(final String nextToken) {
+        return translateToListRepositoryAssociationsRequest(null, nextToken, 0);
+    }
+
+    /**
+     * Request to list associations. The properties set on the model become server-side filters, so only matching
+     * associations are paged through.
+     *
+     * @param model      resource model with the properties to filter on, may be null
+     * @param nextToken  token of the page to fetch
+     * @param maxResults page size, or 0 to leave it to the service
+     * @return awsRequest the aws service request to list associations
+     */
+    static ListRepositoryAssociationsRequest translateToListRepositoryAssociationsRequest(
+            final ResourceModel model,
+            final String nextToken,
+            final int maxResults) {
+        final ListRepositoryAssociationsRequest.Builder requestBuilder = ListRepositoryAssociationsRequest.builder()
+                .nextToken(nextToken);
+        if (maxResults > 0) {
+            requestBuilder.maxResults(maxResults);
+        }
+        if (model == null) {
+            return requestBuilder.build();
+        }
+        if (!StringUtils.isNullOrEmpty(model.getName())) {
+            requestBuilder.names(model.getName());
+        }
+        if (!StringUtils.isNullOrEmpty(model.getType())) {
+            requestBuilder.providerTypesWithStrings(model.getType());
+        }
+        if (!StringUtils.isNullOrEmpty(model.getOwner())) {
+            requestBuilder.owners(model.getOwner());
+        }
+        return requestBuilder.build();
+    }
+
+    /**
+     * Request to list every association that is still associating or disassociating, in pages as large as the
+     * service allows, so that one sweep resolves the states of all stabilizing associations.
+     *
+     * @param nextToken token of the page to fetch
+     * @return awsRequest the aws service request to list transitional associations
+     */
+    static ListRepositoryAssociationsRequest translateToListTransitionalAssociationsRequest(final String nextToken) {
         return ListRepositoryAssociationsRequest.builder()
+                .states(RepositoryAssociationState.ASSOCIATING, RepositoryAssociationState.DISASSOCIATING)
+                .maxResults(100)
                 .nextToken(nextToken)
                 .build();
     }
 
+    /**
+     * Request to find the active associations of the repository described by the model
+     *
+     * @param model     resource model
+     * @param nextToken token of the page to fetch
+     * @return awsRequest the aws service request to list matching associations
+     */
+    static ListRepositoryAssociationsRequest translateToFindAssociationRequest(
+            final ResourceModel model,
+            final String nextToken) {
+        final ListRepositoryAssociationsRequest.Builder requestBuilder = ListRepositoryAssociationsRequest.builder()
+                .names(model.getName())
+                .providerTypesWithStrings(model.getType())
+                .states(RepositoryAssociationState.ASSOCIATED, RepositoryAssociationState.ASSOCIATING)
+                .nextToken(nextToken);
+        if (!StringUtils.isNullOrEmpty(model.getOwner())) {
+            requestBuilder.owners(model.getOwner());
+        }
+        return requestBuilder.build();
+    }
+
+    /**
+     * @param summary summary of an existing association
+     * @return the summary in the shape of an AssociateRepository response, so an adopted association can go through
+     * the same stabilization as a new one
+     */
+    static AssociateRepositoryResponse translateToAssociateRepositoryResponse(
+            final RepositoryAssociationSummary summary) {
+        return AssociateRepositoryResponse.builder()
+                .repositoryAssociation(RepositoryAssociation.builder()
+                        .associationArn(summary.associationArn())
+                        .associationId(summary.associationId())
+                        .connectionArn(summary.connectionArn())
+                        .name(summary.name())
+                        .owner(summary.owner())
+                        .providerType(summary.providerType())
+                        .state(summary.state())
+                        .lastUpdatedTimeStamp(summary.lastUpdatedTimeStamp())
+                        .build())
+                .build();
+    }
+
     static List<ResourceModel> translateFromListRepositoryAssocationResponse(final List<RepositoryAssociationSummary> summaries) {
         return streamOfOrEmpty(summaries)
                 .map(repositoryAssociationSummary -> ResourceModel.builder()
@@ -156,11 +356,26 @@ public final class Translator {
                 .orElseGet(Stream::empty);
     }
 
+    private static Map<String, String> getTagMap(final ResourceModel model) {
+        if (model == null) {
+            return Collections.emptyMap();
+        }
+        return getTagsFromModel(model).orElseGet(Collections::emptyMap);
+    }
+
     private static Optional<Map<String, String>> getTagsFromModel(final ResourceModel model) {
         List<Tag> tags = model.getTags();
         if (tags == null || tags.isEmpty()) {
             return Optional.empty();
         }
-        return Optional.of(tags.stream().collect(Collectors.toMap(Tag :: getKey, Tag :: getValue)));
+        final Map<String, String> tagMap = new HashMap<>();
+        for (final Tag tag : tags) {
+            if (tag.getKey() == null || tag.getValue() == null) {
+                throw new CfnInvalidRequestException(String.format("Tag %s requires both a Key and a Value",
+                        tag.getKey()));
+            }
+            tagMap.put(tag.getKey(), tag.getValue());
+        }
+        return Optional.of(tagMap);
     }
 }
@@ -1,27 +1,144 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
+import com.amazonaws.util.StringUtils;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
+import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
-import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
-public class UpdateHandler extends BaseHandler<CallbackContext> {
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Tags are the only properties that can change in place; every other property is create-only, so CloudFormation
+ * replaces the association instead of calling this handler for them.
+ */
+public class UpdateHandler extends BaseHandlerStd {
+    private Logger logger;
+
+    public UpdateHandler() {
+        super();
+    }
+
+    UpdateHandler(final HandlerSettings settings) {
+        super(settings);
+    }
+
+    @Override
+    protected boolean waitsOutOpenCircuit() {
+        return true;
+    }
 
     @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
-        final AmazonWebServicesClientProxy proxy,
-        final ResourceHandlerRequest<ResourceModel> request,
-        final CallbackContext callbackContext,
-        final Logger logger) {
+    protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext callbackContext,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final Logger logger) {
+
+        this.logger = logger;
 
         final ResourceModel model = request.getDesiredResourceState();
+        final ResourceModel previousModel = request.getPreviousResourceState();
+        if (StringUtils.isNullOrEmpty(model.getAssociationArn()) && previousModel != null) {
+            model.setAssociationArn(previousModel.getAssociationArn());
+        }
+        if (StringUtils.isNullOrEmpty(model.getAssociationArn())) {
+            throw new CfnNotFoundException(ResourceModel.TYPE_NAME, null);
+        }
+
+        invalidateReadCache(model);
+
+        final Set<String> tagKeysToRemove = Translator.getTagKeysToRemove(previousModel, model);
+        final Map<String, String> tagsToAdd = Translator.getTagsToAdd(previousModel, model);
+
+        if (tagKeysToRemove.isEmpty() && tagsToAdd.isEmpty()) {
+            // Nothing to change, but an update of a missing association must still report NotFound.
+            return proxy.initiate("AWS-CodeGuruReviewer-RepositoryAssociation::Update::Read", proxyClient, model,
+                    callbackContext)
+                    .translateToServiceRequest(Translator::translateToDescribeRepositoryAssociationRequest)
+                    .makeServiceCall((awsRequest, sdkProxyClient) -> describeRepositoryAssociation(awsRequest,
+                            sdkProxyClient, model, CodeGuruReviewerClientBuilder.regionOf(request), logger))
+                    .done(awsResponse -> ProgressEvent.defaultSuccessHandler(
+                            Translator.translateFromReadResponse(awsResponse)));
+        }
+
+        return ProgressEvent.progress(model, callbackContext)
+                .then(progress -> tagKeysToRemove.isEmpty() ? progress :
+                        proxy.initiate("AWS-CodeGuruReviewer-RepositoryAssociation::Update::Untag", proxyClient,
+                                model, callbackContext)
+                                .translateToServiceRequest(resourceModel ->
+                                        Translator.translateToUntagResourceRequest(resourceModel, tagKeysToRemove))
+                                .makeServiceCall((awsRequest, sdkProxyClient) -> updateTags(awsRequest,
+                                        sdkProxyClient.client()::untagResource, sdkProxyClient, model))
+                                .progress())
+                .then(progress -> tagsToAdd.isEmpty() ? progress :
+                        proxy.initiate("AWS-CodeGuruReviewer-RepositoryAssociation::Update::Tag", proxyClient,
+                                model, callbackContext)
+                                .translateToServiceRequest(resourceModel ->
+                                        Translator.translateToTagResourceRequest(resourceModel, tagsToAdd))
+                                .makeServiceCall((awsRequest, sdkProxyClient) -> updateTags(awsRequest,
+                                        sdkProxyClient.client()::tagResource, sdkProxyClient, model))
+                                .progress())
+                .then(progress -> {
+                    invalidateReadCache(model);
+                    return ProgressEvent.defaultSuccessHandler(progress.getResourceModel());
+                });
+    }
+
+    /**
+     * Implement client invocation of the tag and untag requests through the proxyClient, which is already
+     * initialised with caller credentials, correct region and retry settings. Tags take effect immediately, so there
+     * is nothing to stabilize afterwards.
+     *
+     * @param tagRequest      the aws service request to tag or untag the association
+     * @param requestFunction the client method to call
+     * @param proxyClient     the aws service client to make the call
+     * @param model           resource model
+     * @return tag or untag resource response
+     */
+    private <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT updateTags(
+            final RequestT tagRequest,
+            final Function<RequestT, ResponseT> requestFunction,
+            final ProxyClient<CodeGuruReviewerClient> proxyClient,
+            final ResourceModel model) {
+        ResponseT awsResponse = null;
 
-        // TODO : put your code here
+        try {
+            awsResponse = proxyClient.injectCredentialsAndInvokeV2(tagRequest, requestFunction);
+            logger.log(String.format("%s response: %s", tagRequest.getClass().getSimpleName(), awsResponse.toString()));
+        } catch (final ResourceNotFoundException e) {
+            throw new CfnNotFoundException(ResourceModel.TYPE_NAME, model.getAssociationArn(), e);
+        } catch (final InternalServerException e) {
+            throw new CfnServiceInternalErrorException(ResourceModel.TYPE_NAME, e);
+        } catch (final ValidationException e) {
+            throw new CfnInvalidRequestException(ResourceModel.TYPE_NAME, e);
+        } catch (final AccessDeniedException e) {
+            throw new CfnAccessDeniedException(ResourceModel.TYPE_NAME, e);
+        } catch (final ThrottlingException e) {
+            throw new CfnThrottlingException(ResourceModel.TYPE_NAME, e);
+        } catch (final Exception e) {
+            throw new CfnInternalFailureException(e);
+        }
 
-        return ProgressEvent.<ResourceModel, CallbackContext>builder()
-            .resourceModel(model)
-            .status(OperationStatus.SUCCESS)
-            .build();
+        logger.log(String.format("%s tags successfully updated.", ResourceModel.TYPE_NAME));
+        return awsResponse;
     }
 }
@@ -5,6 +5,7 @@ import software.amazon.awssdk.awscore.AwsResponse;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClient;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Credentials;
@@ -20,6 +21,8 @@ public class AbstractTestBase {
   protected static final LoggerProxy logger;
   protected final static int TEST_MAX_STABILIZE_ATTEMPTS = 5;
   protected final static Duration TEST_STABILIZE_SLEEP_TIME_MS = Duration.ofMillis(0);
+  protected final static BaseHandlerStd.StateDelays IMMEDIATE_STATE_DELAYS =
+    (state, providerType, timeout) -> attempt -> Duration.ofMillis(1L);
 
   static {
     MOCK_CREDENTIALS = new Credentials("accessKey", "secretKey", "token");
@@ -67,4 +70,46 @@ public class AbstractTestBase {
       }
     };
   }
+  static ProxyClient<CodeGuruReviewerAsyncClient> MOCK_ASYNC_PROXY(
+    final AmazonWebServicesClientProxy proxy,
+    final CodeGuruReviewerAsyncClient sdkClient) {
+    return new ProxyClient<CodeGuruReviewerAsyncClient>() {
+      @Override
+      public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT
+      injectCredentialsAndInvokeV2(RequestT request, Function<RequestT, ResponseT> requestFunction) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public <RequestT extends AwsRequest, ResponseT extends AwsResponse>
+      CompletableFuture<ResponseT>
+      injectCredentialsAndInvokeV2Async(RequestT request, Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
+        return proxy.injectCredentialsAndInvokeV2Async(request, requestFunction);
+      }
+
+      @Override
+      public <RequestT extends AwsRequest, ResponseT extends AwsResponse, IterableT extends SdkIterable<ResponseT>>
+      IterableT
+      injectCredentialsAndInvokeIterableV2(RequestT request, Function<RequestT, IterableT> requestFunction) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseInputStream<ResponseT>
+      injectCredentialsAndInvokeV2InputStream(RequestT requestT, Function<RequestT, ResponseInputStream<ResponseT>> function) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseBytes<ResponseT>
+      injectCredentialsAndInvokeV2Bytes(RequestT requestT, Function<RequestT, ResponseBytes<ResponseT>> function) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public CodeGuruReviewerAsyncClient client() {
+        return sdkClient;
+      }
+    };
+  }
 }
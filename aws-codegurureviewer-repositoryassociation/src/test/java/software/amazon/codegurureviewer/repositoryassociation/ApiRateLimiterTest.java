@@ -0,0 +1,85 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.AssociateRepositoryRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.DisassociateRepositoryRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.TagResourceRequest;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApiRateLimiterTest extends AbstractTestBase {
+
+    @Test
+    public void bucketFor_SeparatesDescribesMutationsAndLists() {
+        final ApiRateLimiter rateLimiter = new ApiRateLimiter(1, 2, 3);
+
+        final TokenBucket describe = rateLimiter.bucketFor(DescribeRepositoryAssociationRequest.builder().build());
+        final TokenBucket mutate = rateLimiter.bucketFor(AssociateRepositoryRequest.builder().build());
+        final TokenBucket list = rateLimiter.bucketFor(ListRepositoryAssociationsRequest.builder().build());
+
+        assertThat(describe).isNotNull().isNotSameAs(mutate).isNotSameAs(list);
+        assertThat(mutate).isNotNull().isNotSameAs(list);
+        assertThat(rateLimiter.bucketFor(DisassociateRepositoryRequest.builder().build())).isSameAs(mutate);
+        assertThat(rateLimiter.bucketFor(TagResourceRequest.builder().build())).isSameAs(mutate);
+        assertThat(rateLimiter.bucketFor(ListTagsForResourceRequest.builder().build())).isSameAs(list);
+    }
+
+    @Test
+    public void bucketFor_ZeroRateIsUnlimited() {
+        final ApiRateLimiter rateLimiter = new ApiRateLimiter(0, 1, 0);
+
+        assertThat(rateLimiter.bucketFor(DescribeRepositoryAssociationRequest.builder().build())).isNull();
+        assertThat(rateLimiter.bucketFor(ListRepositoryAssociationsRequest.builder().build())).isNull();
+    }
+
+    @Test
+    public void shared_SameRatesShareBuckets() {
+        final HandlerSettings settings = HandlerSettings.builder().apiDescribeRequestsPerSecond(7).build();
+
+        assertThat(ApiRateLimiter.shared(settings)).isSameAs(ApiRateLimiter.shared(settings.toBuilder().build()));
+        assertThat(ApiRateLimiter.shared(settings))
+                .isNotSameAs(ApiRateLimiter.shared(settings.toBuilder().apiDescribeRequestsPerSecond(8).build()));
+    }
+
+    @Test
+    public void wrap_UnlimitedReturnsClientItself() {
+        final ProxyClient<CodeGuruReviewerClient> proxyClient = MOCK_PROXY(mock(AmazonWebServicesClientProxy.class),
+                mock(CodeGuruReviewerClient.class));
+
+        assertThat(new ApiRateLimiter(0, 0, 0).wrap(proxyClient)).isSameAs(proxyClient);
+    }
+
+    @Test
+    public void wrap_PacesCalls() {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS,
+                () -> Duration.ofSeconds(600).toMillis());
+        final CodeGuruReviewerClient sdkClient = mock(CodeGuruReviewerClient.class);
+        when(sdkClient.describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder().build());
+        final ProxyClient<CodeGuruReviewerClient> proxyClient = new ApiRateLimiter(10, 0, 0)
+                .wrap(MOCK_PROXY(proxy, sdkClient));
+        final DescribeRepositoryAssociationRequest request = DescribeRepositoryAssociationRequest.builder().build();
+        final long start = System.nanoTime();
+
+        // The bucket holds ten tokens; the eleventh call waits for a refill.
+        for (int i = 0; i < 11; i++) {
+            proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::describeRepositoryAssociation);
+        }
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(80L));
+        assertThat(proxyClient.client()).isSameAs(sdkClient);
+    }
+}
@@ -0,0 +1,115 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchStatePollerTest extends AbstractTestBase {
+
+    private static final String ASSOCIATING_ARN = "arn:aws:codeguru-reviewer:us-west-2:123456789012:association:a";
+    private static final String DISASSOCIATING_ARN = "arn:aws:codeguru-reviewer:us-west-2:123456789012:association:d";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private CodeGuruReviewerClient sdkClient;
+    private ProxyClient<CodeGuruReviewerClient> proxyClient;
+    private BatchStatePoller poller;
+
+    @BeforeEach
+    public void setup() {
+        sdkClient = mock(CodeGuruReviewerClient.class);
+        proxyClient = MOCK_PROXY(new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS,
+                () -> Duration.ofSeconds(600).toMillis()), sdkClient);
+        poller = new BatchStatePoller(Duration.ofSeconds(2L), clock::get);
+    }
+
+    @Test
+    public void transitionalStateOf_OneSweepAnswersEveryAssociation() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ASSOCIATING_ARN, RepositoryAssociationState.ASSOCIATING))
+                        .nextToken("page2")
+                        .build())
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(
+                                summary(DISASSOCIATING_ARN, RepositoryAssociationState.DISASSOCIATING))
+                        .build());
+
+        assertThat(poller.transitionalStateOf(ASSOCIATING_ARN, proxyClient))
+                .isEqualTo(RepositoryAssociationState.ASSOCIATING);
+        clock.addAndGet(1_000L);
+        assertThat(poller.transitionalStateOf(DISASSOCIATING_ARN, proxyClient))
+                .isEqualTo(RepositoryAssociationState.DISASSOCIATING);
+        assertThat(poller.transitionalStateOf("arn:aws:codeguru-reviewer:us-west-2:123456789012:association:x",
+                proxyClient)).isNull();
+
+        verify(sdkClient, times(2)).listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class));
+    }
+
+    @Test
+    public void transitionalStateOf_SweepsAgainOnceStale() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ASSOCIATING_ARN, RepositoryAssociationState.ASSOCIATING))
+                        .build())
+                .thenReturn(ListRepositoryAssociationsResponse.builder().build());
+
+        assertThat(poller.transitionalStateOf(ASSOCIATING_ARN, proxyClient))
+                .isEqualTo(RepositoryAssociationState.ASSOCIATING);
+        clock.addAndGet(2_001L);
+        assertThat(poller.transitionalStateOf(ASSOCIATING_ARN, proxyClient)).isNull();
+
+        verify(sdkClient, times(2)).listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class));
+    }
+
+    @Test
+    public void transitionalStateOf_StopsSweepingAtPageCap() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ASSOCIATING_ARN, RepositoryAssociationState.ASSOCIATING))
+                        .nextToken("next")
+                        .build());
+
+        assertThat(poller.transitionalStateOf(ASSOCIATING_ARN, proxyClient))
+                .isEqualTo(RepositoryAssociationState.ASSOCIATING);
+        assertThat(poller.transitionalStateOf(DISASSOCIATING_ARN, proxyClient)).isNull();
+
+        verify(sdkClient, times(BatchStatePoller.MAX_SWEEP_PAGES))
+                .listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class));
+    }
+
+    @Test
+    public void transitionalStateOf_FailedSweepIsNotReused() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenThrow(InternalServerException.builder().build())
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ASSOCIATING_ARN, RepositoryAssociationState.ASSOCIATING))
+                        .build());
+
+        assertThatExceptionOfType(InternalServerException.class)
+                .isThrownBy(() -> poller.transitionalStateOf(ASSOCIATING_ARN, proxyClient));
+        assertThat(poller.transitionalStateOf(ASSOCIATING_ARN, proxyClient))
+                .isEqualTo(RepositoryAssociationState.ASSOCIATING);
+    }
+
+    private static RepositoryAssociationSummary summary(final String arn, final RepositoryAssociationState state) {
+        return RepositoryAssociationSummary.builder().associationArn(arn).state(state).build();
+    }
+}
@@ -0,0 +1,185 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.NotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
+import software.amazon.awssdk.services.codegurureviewer.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkAssociationReaderTest extends AbstractTestBase {
+
+    private static final String ARN_1 = "arn:aws:codeguru-reviewer:us-west-2:123456789012:association:1";
+    private static final String ARN_2 = "arn:aws:codeguru-reviewer:us-west-2:123456789012:association:2";
+    private static final String ARN_3 = "arn:aws:codeguru-reviewer:us-west-2:123456789012:association:3";
+    private static final Instant UPDATED = Instant.parse("2026-01-01T00:00:00Z");
+
+    private CodeGuruReviewerClient sdkClient;
+    private ProxyClient<CodeGuruReviewerClient> proxyClient;
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final BulkAssociationReader reader =
+            new BulkAssociationReader(HandlerSettings.builder().build(), clock::get);
+
+    @BeforeEach
+    public void setup() {
+        sdkClient = mock(CodeGuruReviewerClient.class);
+        proxyClient = MOCK_PROXY(new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS,
+                () -> Duration.ofSeconds(600).toMillis()), sdkClient);
+    }
+
+    @Test
+    public void read_DescribesOnlyMissingOrChangedAssociations() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ARN_1, UPDATED), summary(ARN_2, UPDATED))
+                        .nextToken("page2")
+                        .build())
+                .thenReturn(ListRepositoryAssociationsResponse.builder().build())
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ARN_1, UPDATED),
+                                summary(ARN_2, UPDATED.plusSeconds(60L)))
+                        .nextToken("page2")
+                        .build());
+        when(sdkClient.describeRepositoryAssociation(describing(ARN_1))).thenReturn(described(ARN_1, UPDATED));
+        when(sdkClient.describeRepositoryAssociation(describing(ARN_2)))
+                .thenReturn(described(ARN_2, UPDATED))
+                .thenReturn(described(ARN_2, UPDATED.plusSeconds(60L)));
+        when(sdkClient.describeRepositoryAssociation(describing(ARN_3)))
+                .thenThrow(NotFoundException.builder().build());
+        when(sdkClient.listTagsForResource(any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder().build());
+
+        final Map<String, ResourceModel> first = reader.read(Arrays.asList(ARN_1, ARN_2, ARN_3), proxyClient, logger);
+        final Map<String, ResourceModel> second = reader.read(Arrays.asList(ARN_1, ARN_2), proxyClient, logger);
+
+        assertThat(first).containsOnlyKeys(ARN_1, ARN_2);
+        assertThat(second).containsOnlyKeys(ARN_1, ARN_2);
+        assertThat(second.get(ARN_1)).isEqualTo(first.get(ARN_1));
+        assertThat(second.get(ARN_1).getType()).isEqualTo(ProviderType.CODE_COMMIT.toString());
+        // The second read finds both associations on the first page and does not page further.
+        verify(sdkClient, times(3)).listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class));
+        verify(sdkClient).describeRepositoryAssociation(describing(ARN_1));
+        verify(sdkClient, times(2)).describeRepositoryAssociation(describing(ARN_2));
+        verify(sdkClient).describeRepositoryAssociation(describing(ARN_3));
+        // Only the association that was not described again needs its tags.
+        verify(sdkClient).listTagsForResource(any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void read_ReusedDescribeGetsCurrentTags() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ARN_1, UPDATED))
+                        .build());
+        when(sdkClient.describeRepositoryAssociation(describing(ARN_1)))
+                .thenReturn(described(ARN_1, UPDATED).toBuilder()
+                        .tags(Collections.singletonMap("team", "old"))
+                        .build());
+        when(sdkClient.listTagsForResource(any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder()
+                        .tags(Collections.singletonMap("team", "new"))
+                        .build());
+
+        final Map<String, ResourceModel> first = reader.read(Collections.singletonList(ARN_1), proxyClient, logger);
+        final Map<String, ResourceModel> second = reader.read(Collections.singletonList(ARN_1), proxyClient, logger);
+
+        assertThat(first.get(ARN_1).getTags()).containsExactly(new Tag("team", "old"));
+        assertThat(second.get(ARN_1).getTags()).containsExactly(new Tag("team", "new"));
+        verify(sdkClient).describeRepositoryAssociation(describing(ARN_1));
+    }
+
+    @Test
+    public void read_AssociationGoneBeforeItsTagsIsLeftOut() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ARN_1, UPDATED))
+                        .build());
+        when(sdkClient.describeRepositoryAssociation(describing(ARN_1))).thenReturn(described(ARN_1, UPDATED));
+        when(sdkClient.listTagsForResource(any(ListTagsForResourceRequest.class)))
+                .thenThrow(ResourceNotFoundException.builder().build());
+
+        reader.read(Collections.singletonList(ARN_1), proxyClient, logger);
+        final Map<String, ResourceModel> second = reader.read(Collections.singletonList(ARN_1), proxyClient, logger);
+
+        assertThat(second).isEmpty();
+    }
+
+    @Test
+    public void read_ExpiredDescribeIsDescribedAgain() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(summary(ARN_1, UPDATED))
+                        .build());
+        when(sdkClient.describeRepositoryAssociation(describing(ARN_1))).thenReturn(described(ARN_1, UPDATED));
+
+        reader.read(Collections.singletonList(ARN_1), proxyClient, logger);
+        clock.addAndGet(BulkAssociationReader.BASELINE_MAX_AGE.toMillis());
+        reader.read(Collections.singletonList(ARN_1), proxyClient, logger);
+
+        verify(sdkClient, times(2)).describeRepositoryAssociation(describing(ARN_1));
+    }
+
+    @Test
+    public void read_ListErrorsAreHandlerExceptions() {
+        when(sdkClient.listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenThrow(ThrottlingException.builder().build());
+
+        assertThatExceptionOfType(CfnThrottlingException.class)
+                .isThrownBy(() -> reader.read(Collections.singletonList(ARN_1), proxyClient, logger));
+    }
+
+    private static DescribeRepositoryAssociationRequest describing(final String associationArn) {
+        return argThat(request -> request != null && associationArn.equals(request.associationArn()));
+    }
+
+    private static RepositoryAssociationSummary summary(final String associationArn, final Instant updated) {
+        return RepositoryAssociationSummary.builder()
+                .associationArn(associationArn)
+                .name("repository")
+                .providerType(ProviderType.CODE_COMMIT)
+                .state(RepositoryAssociationState.ASSOCIATED)
+                .lastUpdatedTimeStamp(updated)
+                .build();
+    }
+
+    private static DescribeRepositoryAssociationResponse described(final String associationArn, final Instant updated) {
+        return DescribeRepositoryAssociationResponse.builder()
+                .repositoryAssociation(RepositoryAssociation.builder()
+                        .associationArn(associationArn)
+                        .name("repository")
+                        .providerType(ProviderType.CODE_COMMIT)
+                        .state(RepositoryAssociationState.ASSOCIATED)
+                        .lastUpdatedTimeStamp(updated)
+                        .build())
+                .build();
+    }
+}
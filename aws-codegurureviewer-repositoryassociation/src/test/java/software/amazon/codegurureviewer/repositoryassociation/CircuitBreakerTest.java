@@ -0,0 +1,134 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final List<String> metrics = new ArrayList<>();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    public void setup() {
+        circuitBreaker = new CircuitBreaker("us-east-1", 50, 4, Duration.ofSeconds(30L), clock::get);
+    }
+
+    @Test
+    public void call_OpensAtFailureRate() {
+        succeed();
+        fail();
+        succeed();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(metrics).hasSize(1);
+        assertThat(metrics.get(0)).contains("\"Region\":\"us-east-1\"", "\"CircuitBreakerState\":2");
+    }
+
+    @Test
+    public void call_RejectsWhileOpen() {
+        open();
+        clock.addAndGet(10_000L);
+
+        assertThatExceptionOfType(CircuitOpenException.class).isThrownBy(this::succeed)
+                .satisfies(e -> {
+                    assertThat(e.getRetryAfterSeconds()).isEqualTo(20);
+                    assertThat(e.getErrorCode()).isEqualTo(HandlerErrorCode.ServiceInternalError);
+                });
+    }
+
+    @Test
+    public void call_ProbeSuccessCloses() {
+        open();
+        clock.addAndGet(30_000L);
+
+        succeed();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(metrics).hasSize(3);
+        assertThat(metrics.get(1)).contains("\"CircuitBreakerState\":1");
+        assertThat(metrics.get(2)).contains("\"CircuitBreakerState\":0");
+    }
+
+    @Test
+    public void call_ProbeFailureReopens() {
+        open();
+        clock.addAndGet(30_000L);
+
+        fail();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatExceptionOfType(CircuitOpenException.class).isThrownBy(this::succeed);
+    }
+
+    @Test
+    public void call_ThrottlingAndClientErrorsDoNotOpen() {
+        for (int i = 0; i < 4; i++) {
+            assertThatExceptionOfType(ThrottlingException.class).isThrownBy(() -> circuitBreaker.call(() -> {
+                throw ThrottlingException.builder().build();
+            }, metrics::add));
+        }
+        fail();
+        for (int i = 0; i < 3; i++) {
+            assertThatExceptionOfType(ValidationException.class).isThrownBy(() -> circuitBreaker.call(() -> {
+                throw ValidationException.builder().build();
+            }, metrics::add));
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void forRegion_DisabledNeverOpens() {
+        final CircuitBreaker disabled = CircuitBreaker.forRegion("us-east-1", HandlerSettings.builder().build());
+
+        for (int i = 0; i < 20; i++) {
+            assertThatExceptionOfType(InternalServerException.class).isThrownBy(() -> disabled.call(() -> {
+                throw InternalServerException.builder().build();
+            }, metrics::add));
+        }
+
+        assertThat(disabled.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void forRegion_SharedPerRegion() {
+        final HandlerSettings settings = HandlerSettings.builder().circuitBreakerFailureRatePercent(50).build();
+
+        assertThat(CircuitBreaker.forRegion("us-east-1", settings))
+                .isSameAs(CircuitBreaker.forRegion("us-east-1", settings))
+                .isNotSameAs(CircuitBreaker.forRegion("us-west-2", settings));
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        assertThat(circuitBreaker.call(() -> "ok", metrics::add)).isEqualTo("ok");
+    }
+
+    private void fail() {
+        assertThatExceptionOfType(InternalServerException.class).isThrownBy(() -> circuitBreaker.call(() -> {
+            throw InternalServerException.builder().build();
+        }, metrics::add));
+    }
+}
@@ -0,0 +1,67 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CodeGuruReviewerClientBuilderTest {
+
+    @Test
+    public void getClient_ReusesClientOfRegion() {
+        final CodeGuruReviewerClient client = CodeGuruReviewerClientBuilder.getClient("us-east-1");
+
+        assertThat(CodeGuruReviewerClientBuilder.getClient("us-east-1")).isSameAs(client);
+        assertThat(CodeGuruReviewerClientBuilder.getClient("us-west-2")).isNotSameAs(client);
+    }
+
+    @Test
+    public void overrideConfiguration_RetriesAndTimeouts() {
+        final ClientOverrideConfiguration configuration = CodeGuruReviewerClientBuilder.overrideConfiguration(
+                HandlerSettings.builder()
+                        .sdkApiCallAttemptTimeout(Duration.ofSeconds(10L))
+                        .sdkApiCallTimeout(Duration.ofSeconds(30L))
+                        .build());
+
+        assertThat(configuration.retryPolicy()).isPresent();
+        assertThat(configuration.apiCallAttemptTimeout()).contains(Duration.ofSeconds(10L));
+        assertThat(configuration.apiCallTimeout()).contains(Duration.ofSeconds(30L));
+    }
+
+    @Test
+    public void overrideConfiguration_TimeoutsAreUnboundedByDefault() {
+        final ClientOverrideConfiguration configuration = CodeGuruReviewerClientBuilder.overrideConfiguration(
+                HandlerSettings.builder().build());
+
+        assertThat(configuration.apiCallAttemptTimeout()).isEmpty();
+        assertThat(configuration.apiCallTimeout()).isEmpty();
+    }
+
+    @Test
+    public void regionOf_PrefersAssociationArn() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder()
+                        .associationArn("arn:aws:codeguru-reviewer:eu-west-1:123456789012:association:id")
+                        .build())
+                .region("us-east-1")
+                .build();
+
+        assertThat(CodeGuruReviewerClientBuilder.regionOf(request)).isEqualTo("eu-west-1");
+    }
+
+    @Test
+    public void regionOf_FallsBackToRequestRegion() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().associationArn("not-an-arn").build())
+                .region("us-east-1")
+                .build();
+
+        assertThat(CodeGuruReviewerClientBuilder.regionOf(request)).isEqualTo("us-east-1");
+        assertThat(CodeGuruReviewerClientBuilder.regionOf(ResourceHandlerRequest.<ResourceModel>builder().build()))
+                .isEqualTo(CodeGuruReviewerClientBuilder.DEFAULT_REGION);
+    }
+}
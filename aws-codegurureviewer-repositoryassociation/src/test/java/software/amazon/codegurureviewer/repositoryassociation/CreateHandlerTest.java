@@ -1,8 +1,10 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
@@ -13,10 +15,17 @@ import software.amazon.awssdk.services.codegurureviewer.model.ConflictException;
 import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
+import software.amazon.awssdk.services.codegurureviewer.model.TagResourceRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.awssdk.services.codegurureviewer.model.UntagResourceRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
 import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
 import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
@@ -32,11 +41,16 @@ import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.time.Duration;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -63,22 +77,24 @@ public class CreateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_SimpleSuccess() {
-        final RepositoryAssociation associatedRepositoryAssociation =
-                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATED).build();
+        final RepositoryAssociation associatedRepositoryAssociation = RepositoryAssociation.builder()
+                .associationArn("arn:test:test")
+                .name("CodeCommit")
+                .providerType(ProviderType.CODE_COMMIT)
+                .state(RepositoryAssociationState.ASSOCIATED)
+                .build();
         final AssociateRepositoryResponse associateRepositoryResponse = AssociateRepositoryResponse.builder()
-                .repositoryAssociation(associatedRepositoryAssociation).build();
+                .repositoryAssociation(associatedRepositoryAssociation)
+                .tags(ImmutableMap.of("key", "value"))
+                .build();
         when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class))).thenReturn(associateRepositoryResponse);
 
-        final DescribeRepositoryAssociationResponse describeRepositoryAssociationResponse =
-                DescribeRepositoryAssociationResponse.builder()
-                        .repositoryAssociation(associatedRepositoryAssociation).build();
-        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class))).thenReturn(describeRepositoryAssociationResponse);
-
         final ResourceModel model = ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).name(
-                "CodeCommit").build();
+                "CodeCommit").tags(Collections.singletonList(new Tag("key", "value"))).build();
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
+                .clientRequestToken("3f1a0b2c-5d6e-4f70-8a9b-0c1d2e3f4a5b")
                 .build();
 
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
@@ -91,21 +107,30 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+
+        final ArgumentCaptor<AssociateRepositoryRequest> associateRepositoryRequest =
+                ArgumentCaptor.forClass(AssociateRepositoryRequest.class);
+        verify(proxyClient.client()).associateRepository(associateRepositoryRequest.capture());
+        assertThat(associateRepositoryRequest.getValue().clientRequestToken())
+                .isEqualTo(request.getClientRequestToken());
+        verify(proxyClient.client(), never()).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
     }
 
     @Test
     public void handleRequest_SimpleBitBucketSuccess() {
-        final RepositoryAssociation associatedRepositoryAssociation =
-                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATED).build();
+        final RepositoryAssociation associatedRepositoryAssociation = RepositoryAssociation.builder()
+                .associationArn("arn:test:test")
+                .name("BitBucket")
+                .owner("BitBucketOwner")
+                .providerType(ProviderType.BITBUCKET)
+                .connectionArn("arn:aws:codestar-connections:us-west-2:123456789012:connection/adaaeec7-ccd3-46b9" +
+                        "-b2b3-976fdd4ca66c")
+                .state(RepositoryAssociationState.ASSOCIATED)
+                .build();
         final AssociateRepositoryResponse associateRepositoryResponse = AssociateRepositoryResponse.builder()
                 .repositoryAssociation(associatedRepositoryAssociation).build();
         when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class))).thenReturn(associateRepositoryResponse);
 
-        final DescribeRepositoryAssociationResponse describeRepositoryAssociationResponse =
-                DescribeRepositoryAssociationResponse.builder()
-                        .repositoryAssociation(associatedRepositoryAssociation).build();
-        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class))).thenReturn(describeRepositoryAssociationResponse);
-
         final ResourceModel model = ResourceModel.builder()
                 .name("BitBucket")
                 .type(ProviderType.BITBUCKET.toString())
@@ -133,17 +158,17 @@ public class CreateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_S3BucketSuccess() {
-        final RepositoryAssociation associatedRepositoryAssociation =
-                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATED).build();
+        final RepositoryAssociation associatedRepositoryAssociation = RepositoryAssociation.builder()
+                .associationArn("arn:test:test")
+                .name("S3Bucket")
+                .providerType(ProviderType.S3_BUCKET)
+                .s3RepositoryDetails(details -> details.bucketName("bucketName"))
+                .state(RepositoryAssociationState.ASSOCIATED)
+                .build();
         final AssociateRepositoryResponse associateRepositoryResponse = AssociateRepositoryResponse.builder()
                 .repositoryAssociation(associatedRepositoryAssociation).build();
         when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class))).thenReturn(associateRepositoryResponse);
 
-        final DescribeRepositoryAssociationResponse describeRepositoryAssociationResponse =
-                DescribeRepositoryAssociationResponse.builder()
-                        .repositoryAssociation(associatedRepositoryAssociation).build();
-        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class))).thenReturn(describeRepositoryAssociationResponse);
-
         final ResourceModel model = ResourceModel.builder()
                 .name("S3Bucket")
                 .type(ProviderType.S3_BUCKET.toString())
@@ -168,10 +193,10 @@ public class CreateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_StabilizeFail() {
-        final RepositoryAssociation associatedRepositoryAssociation =
-                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATED).build();
+        final RepositoryAssociation associatingRepositoryAssociation =
+                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATING).build();
         final AssociateRepositoryResponse associateRepositoryResponse = AssociateRepositoryResponse.builder()
-                .repositoryAssociation(associatedRepositoryAssociation).build();
+                .repositoryAssociation(associatingRepositoryAssociation).build();
         when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class))).thenReturn(associateRepositoryResponse);
 
         final RepositoryAssociation failedRepositoryAssociation =
@@ -193,10 +218,254 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .desiredResourceState(model)
                 .build();
 
+        handler = new CreateHandler(HandlerSettings.builder().build(), IMMEDIATE_STATE_DELAYS,
+                StabilizationDelay.forTransientErrors());
+
+        assertThatExceptionOfType(CfnNotStabilizedException.class).isThrownBy(() -> handler.handleRequest(proxy,
+                request, new CallbackContext(), proxyClient, logger));
+    }
+
+    @Test
+    public void handleRequest_FailFastWhenAssociateRepositoryReportsFailed() {
+        final RepositoryAssociation failedRepositoryAssociation = RepositoryAssociation.builder()
+                .state(RepositoryAssociationState.FAILED)
+                .stateReason("Failed to access the repository.")
+                .build();
+        when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class)))
+                .thenReturn(AssociateRepositoryResponse.builder()
+                        .repositoryAssociation(failedRepositoryAssociation).build());
+
+        final ResourceModel model = ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).name(
+                "CodeCommit").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        assertThatExceptionOfType(CfnNotStabilizedException.class)
+                .isThrownBy(() -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger))
+                .withCauseInstanceOf(IllegalStateException.class)
+                .satisfies(e -> assertThat(e.getCause()).hasMessage("Failed to access the repository."));
+        verify(proxyClient.client(), never()).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+    }
+
+    @Test
+    public void handleRequest_InProgressWithCallbackWhenWaitIsLong() {
+        final RepositoryAssociation associatingRepositoryAssociation = RepositoryAssociation.builder()
+                .associationArn("arn:test:test")
+                .name("CodeCommit")
+                .providerType(ProviderType.CODE_COMMIT)
+                .state(RepositoryAssociationState.ASSOCIATING)
+                .build();
+        final RepositoryAssociation associatedRepositoryAssociation = associatingRepositoryAssociation.toBuilder()
+                .state(RepositoryAssociationState.ASSOCIATED)
+                .build();
+        when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class)))
+                .thenReturn(AssociateRepositoryResponse.builder()
+                        .repositoryAssociation(associatingRepositoryAssociation).build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder()
+                        .repositoryAssociation(associatedRepositoryAssociation).build());
+
+        final ResourceModel model = ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).name(
+                "CodeCommit").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final CallbackContext callbackContext = new CallbackContext();
+        handler = new CreateHandler(HandlerSettings.builder().inProcessPollThreshold(Duration.ZERO).build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> inProgress = handler.handleRequest(proxy, request,
+                callbackContext, proxyClient, logger);
+
+        assertThat(inProgress.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(inProgress.getCallbackDelaySeconds()).isGreaterThan(0);
+        assertThat(inProgress.getResourceModel().getAssociationArn()).isEqualTo("arn:test:test");
+        assertThat(inProgress.getCallbackContext().getStabilizationAttempts()).isEqualTo(1);
+        assertThat(inProgress.getCallbackContext().getFirstObservedState())
+                .isEqualTo(RepositoryAssociationState.ASSOCIATING.toString());
+        assertThat(inProgress.getCallbackContext().getStabilizationStartTime()).isGreaterThan(0L);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder().desiredResourceState(inProgress.getResourceModel()).build(),
+                inProgress.getCallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(ResourceModel.builder()
+                .associationArn("arn:test:test")
+                .name("CodeCommit")
+                .type(ProviderType.CODE_COMMIT.toString())
+                .build());
+        assertThat(callbackContext.getStabilizationAttempts()).isEqualTo(1);
+        assertThat(callbackContext.getFirstObservedState()).isEqualTo(RepositoryAssociationState.ASSOCIATING.toString());
+    }
+
+    @Test
+    public void handleRequest_NotStabilizedWhenTimeoutReached() {
+        final RepositoryAssociation associatingRepositoryAssociation =
+                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATING).build();
+        when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class)))
+                .thenReturn(AssociateRepositoryResponse.builder()
+                        .repositoryAssociation(associatingRepositoryAssociation).build());
+
+        final ResourceModel model = ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).name(
+                "CodeCommit").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        handler = new CreateHandler(HandlerSettings.builder().createStabilizationTimeout(Duration.ZERO).build());
+
         assertThatExceptionOfType(CfnNotStabilizedException.class).isThrownBy(() -> handler.handleRequest(proxy,
                 request, new CallbackContext(), proxyClient, logger));
     }
 
+    @Test
+    public void handleRequest_StabilizeThroughTransientErrors() {
+        // No state in the AssociateRepository response, so the first probe is a describe.
+        final RepositoryAssociation repositoryAssociation = RepositoryAssociation.builder()
+                .associationArn("arn:test:test")
+                .name("CodeCommit")
+                .providerType(ProviderType.CODE_COMMIT)
+                .build();
+        when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class)))
+                .thenReturn(AssociateRepositoryResponse.builder()
+                        .repositoryAssociation(repositoryAssociation).build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenThrow(ThrottlingException.builder().build())
+                .thenReturn(DescribeRepositoryAssociationResponse.builder()
+                        .repositoryAssociation(repositoryAssociation.toBuilder()
+                                .state(RepositoryAssociationState.ASSOCIATED)
+                                .build())
+                        .build());
+
+        final ResourceModel model = ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).name(
+                "CodeCommit").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        handler = new CreateHandler(HandlerSettings.builder().build(), IMMEDIATE_STATE_DELAYS,
+                attempt -> Duration.ZERO);
+        final CallbackContext callbackContext = new CallbackContext();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                callbackContext, proxyClient, logger);
+
+        // A success event carries no callback context, so the one the handler was given is checked.
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(callbackContext.getTransientErrorCount()).isEqualTo(1);
+        assertThat(callbackContext.getStabilizationAttempts()).isEqualTo(0);
+    }
+
+    @Test
+    public void handleRequest_StabilizeFailsOnceTransientErrorBudgetIsSpent() {
+        when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class)))
+                .thenReturn(AssociateRepositoryResponse.builder()
+                        .repositoryAssociation(RepositoryAssociation.builder()
+                                .state(RepositoryAssociationState.ASSOCIATING)
+                                .build())
+                        .build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenThrow(InternalServerException.builder().build());
+
+        final ResourceModel model = ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).name(
+                "CodeCommit").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        handler = new CreateHandler(HandlerSettings.builder().transientErrorBudget(0).build());
+
+        assertThatExceptionOfType(CfnServiceInternalErrorException.class).isThrownBy(() -> handler.handleRequest(proxy,
+                request, new CallbackContext(), proxyClient, logger));
+    }
+
+    @Test
+    public void handleRequest_AdoptExistingAssociationOnConflict() {
+        final RepositoryAssociationSummary existingAssociation = RepositoryAssociationSummary.builder()
+                .associationArn("arn:test:existing")
+                .name("BitBucket")
+                .owner("BitBucketOwner")
+                .providerType(ProviderType.BITBUCKET)
+                .state(RepositoryAssociationState.ASSOCIATED)
+                .build();
+        when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class)))
+                .thenThrow(ConflictException.builder().build());
+        when(proxyClient.client().listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder().nextToken("nextToken").build())
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(existingAssociation).build());
+        when(proxyClient.client().listTagsForResource(any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder()
+                        .tags(ImmutableMap.of("key", "old", "stale", "value"))
+                        .build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder()
+                        .repositoryAssociation(RepositoryAssociation.builder()
+                                .associationArn("arn:test:existing")
+                                .name("BitBucket")
+                                .owner("BitBucketOwner")
+                                .providerType(ProviderType.BITBUCKET)
+                                .state(RepositoryAssociationState.ASSOCIATED)
+                                .build())
+                        .tags(ImmutableMap.of("key", "value"))
+                        .build());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("BitBucket")
+                .type(ProviderType.BITBUCKET.toString())
+                .owner("BitBucketOwner")
+                .connectionArn("arn:aws:codestar-connections:us-west-2:123456789012:connection/adaaeec7-ccd3-46b9" +
+                        "-b2b3-976fdd4ca66c")
+                .tags(Collections.singletonList(new Tag("key", "value")))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        handler = new CreateHandler(HandlerSettings.builder().adoptExistingAssociation(true).build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getAssociationArn()).isEqualTo("arn:test:existing");
+        assertThat(response.getResourceModel().getTags()).containsExactly(new Tag("key", "value"));
+
+        final ArgumentCaptor<UntagResourceRequest> untagRequest = ArgumentCaptor.forClass(UntagResourceRequest.class);
+        verify(proxyClient.client()).untagResource(untagRequest.capture());
+        assertThat(untagRequest.getValue().resourceArn()).isEqualTo("arn:test:existing");
+        assertThat(untagRequest.getValue().tagKeys()).containsExactly("stale");
+        final ArgumentCaptor<TagResourceRequest> tagRequest = ArgumentCaptor.forClass(TagResourceRequest.class);
+        verify(proxyClient.client()).tagResource(tagRequest.capture());
+        assertThat(tagRequest.getValue().tags()).containsExactly(entry("key", "value"));
+
+        final ArgumentCaptor<ListRepositoryAssociationsRequest> listRequest =
+                ArgumentCaptor.forClass(ListRepositoryAssociationsRequest.class);
+        verify(proxyClient.client(), times(2)).listRepositoryAssociations(listRequest.capture());
+        assertThat(listRequest.getAllValues().get(0).names()).containsExactly("BitBucket");
+        assertThat(listRequest.getAllValues().get(0).owners()).containsExactly("BitBucketOwner");
+        assertThat(listRequest.getAllValues().get(0).providerTypes()).containsExactly(ProviderType.BITBUCKET);
+        assertThat(listRequest.getAllValues().get(1).nextToken()).isEqualTo("nextToken");
+    }
+
+    @Test
+    public void handleRequest_AdoptExistingAssociationWithoutMatch() {
+        when(proxyClient.client().associateRepository(any(AssociateRepositoryRequest.class)))
+                .thenThrow(ConflictException.builder().build());
+        when(proxyClient.client().listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder().build());
+
+        final ResourceModel model = ResourceModel.builder()
+                .type(ProviderType.CODE_COMMIT.toString())
+                .name("CodeCommit")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        handler = new CreateHandler(HandlerSettings.builder().adoptExistingAssociation(true).build());
+
+        assertThatExceptionOfType(CfnAlreadyExistsException.class).isThrownBy(() -> handler.handleRequest(proxy,
+                request, new CallbackContext(), proxyClient, logger));
+    }
+
     @Test
     public void handleRequest_exceptions() {
         final ResourceModel model = ResourceModel.builder()
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
 import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
 import software.amazon.awssdk.services.codegurureviewer.model.ConflictException;
@@ -13,9 +14,12 @@ import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepository
 import software.amazon.awssdk.services.codegurureviewer.model.DisassociateRepositoryRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.DisassociateRepositoryResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.NotFoundException;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
 import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
 import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
 import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
@@ -32,11 +36,13 @@ import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -105,6 +111,81 @@ public class DeleteHandlerTest extends AbstractTestBase {
         verify(proxyClient.client()).disassociateRepository(any(DisassociateRepositoryRequest.class));
     }
 
+    @Test
+    public void handleRequest_CircuitOpensWhileStabilizing() {
+        final RepositoryAssociation repositoryAssociation =
+                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATED).build();
+        when(proxyClient.client().disassociateRepository(any(DisassociateRepositoryRequest.class)))
+                .thenReturn(DisassociateRepositoryResponse.builder().repositoryAssociation(repositoryAssociation).build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder().repositoryAssociation(repositoryAssociation).build())
+                .thenThrow(InternalServerException.builder().build());
+        // Opens on the first failure; the pre-delete check is not routed through the breaker.
+        final HandlerSettings settings = HandlerSettings.builder()
+                .circuitBreakerFailureRatePercent(100)
+                .circuitBreakerWindowCalls(1)
+                .circuitBreakerOpenDuration(Duration.ofSeconds(60L))
+                .build();
+        handler = new DeleteHandler(settings, IMMEDIATE_STATE_DELAYS, attempt -> Duration.ZERO);
+
+        final ResourceModel model = ResourceModel.builder().associationArn("arn:aws:codestar-connections:us-west-2" +
+                ":123456789012:connection/adaaeec7-ccd3-46b9-b2b3-976fdd4ca66c").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isBetween(58, 60);
+        assertThat(CircuitBreaker.forRegion("us-west-2", settings).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        verify(proxyClient.client(), times(2)).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+    }
+
+    @Test
+    public void handleRequest_BatchStabilizationPollingSweepsInsteadOfDescribing() {
+        final String associationArn = "arn:aws:codeguru-reviewer:us-west-2:123456789012:association:" +
+                "adaaeec7-ccd3-46b9-b2b3-976fdd4ca66c";
+        // Every reading of the clock is a millisecond later, so each probe sweeps again rather than reusing a sweep.
+        final AtomicLong clock = new AtomicLong();
+        final BatchStatePoller poller = new BatchStatePoller(Duration.ZERO, clock::incrementAndGet);
+        handler = new DeleteHandler(HandlerSettings.builder().batchStabilizationPolling(true).build(),
+                IMMEDIATE_STATE_DELAYS, attempt -> Duration.ZERO) {
+            @Override
+            protected BatchStatePoller batchStatePoller(final String region) {
+                return poller;
+            }
+        };
+        final RepositoryAssociation repositoryAssociation =
+                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATED).build();
+        when(proxyClient.client().disassociateRepository(any(DisassociateRepositoryRequest.class)))
+                .thenReturn(DisassociateRepositoryResponse.builder().repositoryAssociation(repositoryAssociation).build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder().repositoryAssociation(repositoryAssociation).build())
+                .thenThrow(NotFoundException.builder().build());
+        when(proxyClient.client().listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class)))
+                .thenReturn(ListRepositoryAssociationsResponse.builder()
+                        .repositoryAssociationSummaries(RepositoryAssociationSummary.builder()
+                                .associationArn(associationArn)
+                                .state(RepositoryAssociationState.DISASSOCIATING)
+                                .build())
+                        .build())
+                .thenReturn(ListRepositoryAssociationsResponse.builder().build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().associationArn(associationArn).build())
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        // The pre-delete check, then one describe once the association is no longer listed.
+        verify(proxyClient.client(), times(2)).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+        verify(proxyClient.client(), times(2)).listRepositoryAssociations(any(ListRepositoryAssociationsRequest.class));
+    }
+
     @Test
     public void handleRequest_FailWhenNotFoundException() {
         when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class))).thenThrow(NotFoundException.class);
@@ -143,9 +224,12 @@ public class DeleteHandlerTest extends AbstractTestBase {
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
                 .build();
+        handler = new DeleteHandler(HandlerSettings.builder().build(), IMMEDIATE_STATE_DELAYS,
+                attempt -> Duration.ZERO);
+        final CallbackContext callbackContext = new CallbackContext();
 
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
-                new CallbackContext(), proxyClient, logger);
+                callbackContext, proxyClient, logger);
 
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
@@ -154,10 +238,113 @@ public class DeleteHandlerTest extends AbstractTestBase {
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+        // The throttled probe is retried on the transient error backoff, not on the state schedule.
+        assertThat(callbackContext.getTransientErrorCount()).isEqualTo(1);
+        assertThat(callbackContext.getStabilizationAttempts()).isEqualTo(0);
+
+        verify(proxyClient.client()).disassociateRepository(any(DisassociateRepositoryRequest.class));
+    }
+
+    @Test
+    public void handleRequest_StabilizeContinuesThroughClientErrors() {
+        when(proxyClient.client().disassociateRepository(any(DisassociateRepositoryRequest.class)))
+                .thenReturn(DisassociateRepositoryResponse.builder()
+                        .repositoryAssociation(RepositoryAssociation.builder()
+                                .state(RepositoryAssociationState.DISASSOCIATING)
+                                .build())
+                        .build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder()
+                        .repositoryAssociation(RepositoryAssociation.builder()
+                                .state(RepositoryAssociationState.ASSOCIATED)
+                                .build())
+                        .build())
+                .thenThrow(SdkClientException.builder().message("Connection reset").build());
+
+        final ResourceModel model = ResourceModel.builder().associationArn("arn:test:test").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        handler = new DeleteHandler(HandlerSettings.builder().inProcessPollThreshold(Duration.ZERO).build());
+        final CallbackContext callbackContext = new CallbackContext();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                callbackContext, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(callbackContext.getTransientErrorCount()).isEqualTo(1);
+        assertThat(callbackContext.getStabilizationAttempts()).isEqualTo(0);
+    }
+
+    @Test
+    public void handleRequest_StabilizeFailFastOnTerminalException() {
+        final RepositoryAssociation repositoryAssociation =
+                RepositoryAssociation.builder().state(RepositoryAssociationState.ASSOCIATED).build();
+        when(proxyClient.client().disassociateRepository(any(DisassociateRepositoryRequest.class)))
+                .thenReturn(DisassociateRepositoryResponse.builder()
+                        .repositoryAssociation(repositoryAssociation)
+                        .build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder()
+                        .repositoryAssociation(repositoryAssociation)
+                        .build())
+                .thenThrow(AccessDeniedException.builder().build());
 
+        final ResourceModel model = ResourceModel.builder().associationArn("arn:test:test").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        assertThatExceptionOfType(CfnAccessDeniedException.class).isThrownBy(() -> handler.handleRequest(proxy,
+                request, new CallbackContext(), proxyClient, logger));
+        verify(proxyClient.client(), times(2)).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+    }
+
+    @Test
+    public void handleRequest_SingleRoundTripDeleteSuccess() {
+        when(proxyClient.client().disassociateRepository(any(DisassociateRepositoryRequest.class)))
+                .thenReturn(DisassociateRepositoryResponse.builder()
+                        .repositoryAssociation(RepositoryAssociation.builder()
+                                .state(RepositoryAssociationState.DISASSOCIATING)
+                                .build())
+                        .build());
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenThrow(NotFoundException.builder().build());
+
+        final ResourceModel model = ResourceModel.builder().associationArn("arn:test:test").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        handler = new DeleteHandler(HandlerSettings.builder().singleRoundTripDelete(true).build(),
+                IMMEDIATE_STATE_DELAYS, StabilizationDelay.forTransientErrors());
+        final CallbackContext callbackContext = new CallbackContext();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                callbackContext, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isNull();
+        assertThat(callbackContext.getFirstObservedState())
+                .isEqualTo(RepositoryAssociationState.DISASSOCIATING.toString());
         verify(proxyClient.client()).disassociateRepository(any(DisassociateRepositoryRequest.class));
+        verify(proxyClient.client(), times(1)).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
     }
 
+    @Test
+    public void handleRequest_SingleRoundTripDeleteNotFound() {
+        when(proxyClient.client().disassociateRepository(any(DisassociateRepositoryRequest.class)))
+                .thenThrow(NotFoundException.builder().build());
+
+        final ResourceModel model = ResourceModel.builder().associationArn("arn:test:test").build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        handler = new DeleteHandler(HandlerSettings.builder().singleRoundTripDelete(true).build());
+
+        assertThatExceptionOfType(CfnNotFoundException.class).isThrownBy(() -> handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger));
+        verify(proxyClient.client(), never()).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+    }
 
     @Test
     public void checkForPreDeleteResourceExistence_InDeleteWorkflow() {
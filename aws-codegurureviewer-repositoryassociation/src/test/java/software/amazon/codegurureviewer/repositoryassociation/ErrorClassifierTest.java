@@ -0,0 +1,50 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
+import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ErrorClassifierTest {
+
+    @Test
+    public void isTransient() {
+        assertThat(ErrorClassifier.isTransient(new CfnThrottlingException(ResourceModel.TYPE_NAME, null))).isTrue();
+        assertThat(ErrorClassifier.isTransient(new CfnServiceInternalErrorException(ResourceModel.TYPE_NAME, null))).isTrue();
+        assertThat(ErrorClassifier.isTransient(ThrottlingException.builder().build())).isTrue();
+        assertThat(ErrorClassifier.isTransient(InternalServerException.builder().build())).isTrue();
+        assertThat(ErrorClassifier.isTransient(SdkClientException.builder().message("Connection reset").build()))
+                .isTrue();
+
+        assertThat(ErrorClassifier.isTransient(new CfnAccessDeniedException(ResourceModel.TYPE_NAME, null))).isFalse();
+        assertThat(ErrorClassifier.isTransient(new CfnInvalidRequestException(ResourceModel.TYPE_NAME, null))).isFalse();
+        assertThat(ErrorClassifier.isTransient(AccessDeniedException.builder().build())).isFalse();
+        assertThat(ErrorClassifier.isTransient(new RuntimeException())).isFalse();
+    }
+
+    @Test
+    public void toHandlerException() {
+        final CfnAccessDeniedException accessDenied = new CfnAccessDeniedException(ResourceModel.TYPE_NAME, null);
+
+        assertThat(ErrorClassifier.toHandlerException(accessDenied)).isSameAs(accessDenied);
+        assertThat(ErrorClassifier.toHandlerException(AccessDeniedException.builder().build()))
+                .isInstanceOf(CfnAccessDeniedException.class);
+        assertThat(ErrorClassifier.toHandlerException(ThrottlingException.builder().build()))
+                .isInstanceOf(CfnThrottlingException.class);
+        assertThat(ErrorClassifier.toHandlerException(InternalServerException.builder().build()))
+                .isInstanceOf(CfnServiceInternalErrorException.class);
+        assertThat(ErrorClassifier.toHandlerException(ValidationException.builder().build()))
+                .isInstanceOf(CfnInvalidRequestException.class);
+        assertThat(ErrorClassifier.toHandlerException(new RuntimeException()))
+                .isInstanceOf(CfnInternalFailureException.class);
+    }
+}
@@ -0,0 +1,146 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HandlerSettingsTest {
+
+    @Test
+    public void fromEnvironment_Defaults() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(Collections.emptyMap());
+
+        assertThat(settings).isEqualTo(HandlerSettings.builder().build());
+        assertThat(settings.getCreateStabilizationTimeout()).isEqualTo(Duration.ofMinutes(5L));
+        assertThat(settings.getDeleteStabilizationTimeout()).isEqualTo(Duration.ofMinutes(5L));
+    }
+
+    @Test
+    public void fromEnvironment_Overrides() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.CREATE_STABILIZATION_TIMEOUT_SECONDS, "3600",
+                HandlerSettings.DELETE_STABILIZATION_TIMEOUT_SECONDS, " 120 ",
+                HandlerSettings.IN_PROCESS_POLL_THRESHOLD_SECONDS, "0",
+                HandlerSettings.IN_PROCESS_STABILIZATION_BUDGET_SECONDS, "45",
+                HandlerSettings.TRANSIENT_ERROR_BUDGET, "2"));
+
+        assertThat(settings.getCreateStabilizationTimeout()).isEqualTo(Duration.ofHours(1L));
+        assertThat(settings.getDeleteStabilizationTimeout()).isEqualTo(Duration.ofMinutes(2L));
+        assertThat(settings.getInProcessPollThreshold()).isEqualTo(Duration.ZERO);
+        assertThat(settings.getInProcessStabilizationBudget()).isEqualTo(Duration.ofSeconds(45L));
+        assertThat(settings.getTransientErrorBudget()).isEqualTo(2);
+    }
+
+    @Test
+    public void fromEnvironment_InvalidValuesFallBackToDefaults() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.CREATE_STABILIZATION_TIMEOUT_SECONDS, "ten minutes",
+                HandlerSettings.DELETE_STABILIZATION_TIMEOUT_SECONDS, "-1",
+                HandlerSettings.TRANSIENT_ERROR_BUDGET, "-3"));
+
+        assertThat(settings).isEqualTo(HandlerSettings.builder().build());
+    }
+
+    @Test
+    public void fromEnvironment_SdkRetriesAndTimeouts() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.SDK_RETRY_BUDGET, "0",
+                HandlerSettings.SDK_API_CALL_ATTEMPT_TIMEOUT_SECONDS, "5",
+                HandlerSettings.SDK_API_CALL_TIMEOUT_SECONDS, "20"));
+
+        assertThat(settings.getSdkRetryBudget()).isZero();
+        assertThat(settings.getSdkApiCallAttemptTimeout()).isEqualTo(Duration.ofSeconds(5L));
+        assertThat(settings.getSdkApiCallTimeout()).isEqualTo(Duration.ofSeconds(20L));
+    }
+
+    @Test
+    public void fromEnvironment_ApiRates() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.API_DESCRIBE_REQUESTS_PER_SECOND, "10",
+                HandlerSettings.API_MUTATE_REQUESTS_PER_SECOND, "2",
+                HandlerSettings.API_LIST_REQUESTS_PER_SECOND, "1001"));
+
+        assertThat(settings.getApiDescribeRequestsPerSecond()).isEqualTo(10);
+        assertThat(settings.getApiMutateRequestsPerSecond()).isEqualTo(2);
+        assertThat(settings.getApiListRequestsPerSecond()).isZero();
+    }
+
+    @Test
+    public void fromEnvironment_CircuitBreaker() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.CIRCUIT_BREAKER_FAILURE_RATE_PERCENT, "50",
+                HandlerSettings.CIRCUIT_BREAKER_WINDOW_CALLS, "0",
+                HandlerSettings.CIRCUIT_BREAKER_OPEN_SECONDS, "120"));
+
+        assertThat(settings.getCircuitBreakerFailureRatePercent()).isEqualTo(50);
+        assertThat(settings.getCircuitBreakerWindowCalls()).isEqualTo(10);
+        assertThat(settings.getCircuitBreakerOpenDuration()).isEqualTo(Duration.ofMinutes(2L));
+    }
+
+    @Test
+    public void fromEnvironment_BatchStabilizationPolling() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.BATCH_STABILIZATION_POLLING, "true",
+                HandlerSettings.BATCH_SWEEP_MAX_AGE_SECONDS, "5"));
+
+        assertThat(settings.isBatchStabilizationPolling()).isTrue();
+        assertThat(settings.getBatchSweepMaxAge()).isEqualTo(Duration.ofSeconds(5L));
+        assertThat(HandlerSettings.builder().build().isBatchStabilizationPolling()).isFalse();
+    }
+
+    @Test
+    public void fromEnvironment_HedgeDescribeBudget() {
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.HEDGE_DESCRIBE_BUDGET_PERCENT, "5"))
+                .getHedgeDescribeBudgetPercent()).isEqualTo(5);
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.HEDGE_DESCRIBE_BUDGET_PERCENT, "101"))
+                .getHedgeDescribeBudgetPercent()).isZero();
+    }
+
+    @Test
+    public void fromEnvironment_ReadCache() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.READ_CACHE_TTL_SECONDS, "30",
+                HandlerSettings.READ_CACHE_MAX_ENTRIES, "0"));
+
+        assertThat(settings.getReadCacheTtl()).isEqualTo(Duration.ofSeconds(30L));
+        assertThat(settings.getReadCacheMaxEntries()).isEqualTo(256);
+        assertThat(HandlerSettings.builder().build().getReadCacheTtl()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void fromEnvironment_ListPageSize() {
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.LIST_PAGE_SIZE, "100"))
+                .getListPageSize()).isEqualTo(100);
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.LIST_PAGE_SIZE, "101"))
+                .getListPageSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void fromEnvironment_ListTagEnrichment() {
+        final HandlerSettings settings = HandlerSettings.fromEnvironment(ImmutableMap.of(
+                HandlerSettings.LIST_TAG_ENRICHMENT, "true",
+                HandlerSettings.LIST_TAG_CONCURRENCY, "4",
+                HandlerSettings.LIST_TAG_REQUESTS_PER_SECOND, "0"));
+
+        assertThat(settings.isListTagEnrichment()).isTrue();
+        assertThat(settings.getListTagConcurrency()).isEqualTo(4);
+        assertThat(settings.getListTagRequestsPerSecond()).isEqualTo(20);
+    }
+
+    @Test
+    public void fromEnvironment_Flags() {
+        assertThat(HandlerSettings.fromEnvironment(Collections.emptyMap()).isAdoptExistingAssociation()).isFalse();
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.ADOPT_EXISTING_ASSOCIATION, "true"))
+                .isAdoptExistingAssociation()).isTrue();
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.ADOPT_EXISTING_ASSOCIATION, " "))
+                .isAdoptExistingAssociation()).isFalse();
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.SINGLE_ROUND_TRIP_DELETE, "TRUE"))
+                .isSingleRoundTripDelete()).isTrue();
+        assertThat(HandlerSettings.fromEnvironment(ImmutableMap.of(HandlerSettings.ASYNC_CLIENT, "true"))
+                .isAsyncClient()).isTrue();
+    }
+}
@@ -1,16 +1,29 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClient;
 import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsRequest;
 import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
+import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
@@ -18,11 +31,18 @@ import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class ListHandlerTest extends AbstractTestBase {
@@ -35,6 +55,8 @@ public class ListHandlerTest extends AbstractTestBase {
     private ProxyClient<CodeGuruReviewerClient> proxyClient;
     @Mock
     CodeGuruReviewerClient sdkClient;
+    @Mock
+    CodeGuruReviewerAsyncClient asyncSdkClient;
 
     private ListHandler handler;
 
@@ -94,6 +116,222 @@ public class ListHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void handleRequest_FiltersOnDesiredModel() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder()
+                        .name("repository")
+                        .type(ProviderType.CODE_COMMIT.toString())
+                        .build())
+                .nextToken("token")
+                .build();
+
+        final ArgumentCaptor<ListRepositoryAssociationsRequest> listRequest =
+                ArgumentCaptor.forClass(ListRepositoryAssociationsRequest.class);
+        doReturn(ListRepositoryAssociationsResponse.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(listRequest.capture(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder().listPageSize(50).build());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(listRequest.getValue().names()).containsExactly("repository");
+        assertThat(listRequest.getValue().providerTypes()).containsExactly(ProviderType.CODE_COMMIT);
+        assertThat(listRequest.getValue().hasOwners()).isFalse();
+        assertThat(listRequest.getValue().maxResults()).isEqualTo(50);
+        assertThat(listRequest.getValue().nextToken()).isEqualTo("token");
+    }
+
+    @Test
+    public void handleRequest_AggregatesPagesWithinBudget() {
+        doReturn(listPage("nextToken1", "arn:test:test1"))
+                .doReturn(listPage("nextToken2", "arn:test:test2"))
+                .doReturn(listPage(null, "arn:test:test3"))
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder().listAggregationBudget(Duration.ofMinutes(1L)).build());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder().build(), null, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getAssociationArn)
+                .containsExactly("arn:test:test1", "arn:test:test2", "arn:test:test3");
+        assertThat(response.getNextToken()).isNull();
+        verify(proxy, times(3)).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_StopsAggregatingAtMaxModels() {
+        doReturn(listPage("nextToken1", "arn:test:test1", "arn:test:test2"))
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder()
+                .listAggregationBudget(Duration.ofMinutes(1L))
+                .listAggregationMaxModels(2)
+                .build());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder().build(), null, proxyClient, logger);
+
+        assertThat(response.getResourceModels()).hasSize(2);
+        assertThat(response.getNextToken()).isEqualTo("nextToken1");
+        verify(proxy).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_ReturnsPartialResultsWhenThrottled() {
+        doReturn(listPage("nextToken1", "arn:test:test1"))
+                .doThrow(ThrottlingException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder().listAggregationBudget(Duration.ofMinutes(1L)).build());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder().build(), null, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getAssociationArn)
+                .containsExactly("arn:test:test1");
+        assertThat(response.getNextToken()).isEqualTo("nextToken1");
+        assertThat(response.getMessage()).isNotNull();
+    }
+
+    @Test
+    public void handleRequest_ReturnsPartialResultsWithTagsWhenThrottled() {
+        doReturn(listPage("nextToken1", "arn:test:test1"))
+                .doThrow(ThrottlingException.builder().build())
+                .doReturn(ListTagsForResourceResponse.builder().tags(ImmutableMap.of("key", "value")).build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder()
+                .listAggregationBudget(Duration.ofMinutes(1L))
+                .listTagEnrichment(true)
+                .build());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder().build(), null, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getAssociationArn)
+                .containsExactly("arn:test:test1");
+        assertThat(response.getResourceModels().get(0).getTags()).containsExactly(new Tag("key", "value"));
+        assertThat(response.getNextToken()).isEqualTo("nextToken1");
+        verify(proxy, times(3)).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_FailsRatherThanReturnModelsWithoutTags() {
+        doReturn(listPage("nextToken1", "arn:test:test1"))
+                .doThrow(ThrottlingException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder()
+                .listAggregationBudget(Duration.ofMinutes(1L))
+                .listTagEnrichment(true)
+                .build());
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder().build();
+
+        assertThatExceptionOfType(CfnThrottlingException.class).isThrownBy(() -> handler.handleRequest(proxy,
+                request, null, proxyClient, logger));
+    }
+
+    @Test
+    public void handleRequest_ThrottledOnFirstPage() {
+        doThrow(ThrottlingException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder().build();
+
+        assertThatExceptionOfType(CfnThrottlingException.class).isThrownBy(() -> handler.handleRequest(proxy,
+                request, null, proxyClient, logger));
+    }
+
+    @Test
+    public void handleRequest_Exceptions() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder().build();
+
+        doThrow(InternalServerException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertThatExceptionOfType(CfnServiceInternalErrorException.class).isThrownBy(() -> handler.handleRequest(proxy, request, null, proxyClient, logger));
+
+        doThrow(ValidationException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertThatExceptionOfType(CfnInvalidRequestException.class).isThrownBy(() -> handler.handleRequest(proxy, request, null, proxyClient, logger));
+
+        doThrow(AccessDeniedException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertThatExceptionOfType(CfnAccessDeniedException.class).isThrownBy(() -> handler.handleRequest(proxy, request, null, proxyClient, logger));
+    }
+
+    @Test
+    public void handleRequest_WithTagEnrichment() {
+        doReturn(listPage(null, "arn:test:test1"))
+                .doReturn(ListTagsForResourceResponse.builder().tags(ImmutableMap.of("key", "value")).build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder().listTagEnrichment(true).build());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder().build(), null, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(1);
+        assertThat(response.getResourceModels().get(0).getTags()).containsExactly(new Tag("key", "value"));
+    }
+
+    @Test
+    public void handleRequest_AsyncClientOverlapsPagesAndTags() {
+        doReturn(MOCK_ASYNC_PROXY(proxy, asyncSdkClient)).when(proxy).newProxy(ArgumentMatchers.any());
+        // First page, prefetched second page, then the tags of each page.
+        doReturn(CompletableFuture.completedFuture(listPage("nextToken1", "arn:test:test1")))
+                .doReturn(CompletableFuture.completedFuture(listPage(null, "arn:test:test2")))
+                .doReturn(CompletableFuture.completedFuture(
+                        ListTagsForResourceResponse.builder().tags(ImmutableMap.of("key", "value1")).build()))
+                .doReturn(CompletableFuture.completedFuture(
+                        ListTagsForResourceResponse.builder().tags(ImmutableMap.of("key", "value2")).build()))
+                .when(proxy)
+                .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder()
+                .asyncClient(true)
+                .listTagEnrichment(true)
+                .listAggregationBudget(Duration.ofMinutes(1L))
+                .build());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder().build(), null, proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getAssociationArn)
+                .containsExactly("arn:test:test1", "arn:test:test2");
+        assertThat(response.getResourceModels().get(0).getTags()).containsExactly(new Tag("key", "value1"));
+        assertThat(response.getResourceModels().get(1).getTags()).containsExactly(new Tag("key", "value2"));
+        assertThat(response.getNextToken()).isNull();
+        verify(proxy, never()).injectCredentialsAndInvokeV2(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void handleRequest_AsyncClientThrottledOnFirstPage() {
+        final CompletableFuture<ListRepositoryAssociationsResponse> throttled = new CompletableFuture<>();
+        throttled.completeExceptionally(ThrottlingException.builder().build());
+        doReturn(MOCK_ASYNC_PROXY(proxy, asyncSdkClient)).when(proxy).newProxy(ArgumentMatchers.any());
+        doReturn(throttled)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2Async(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        handler = new ListHandler(HandlerSettings.builder().asyncClient(true).build());
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder().build();
+
+        assertThatExceptionOfType(CfnThrottlingException.class).isThrownBy(() -> handler.handleRequest(proxy,
+                request, null, proxyClient, logger));
+    }
+
     @Test
     public void handleRequest_Success_EmptyResponse() {
         final ListRepositoryAssociationsResponse listRepositoryAssociationsResponse =
@@ -121,4 +359,17 @@ public class ListHandlerTest extends AbstractTestBase {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
     }
+
+    private static ListRepositoryAssociationsResponse listPage(final String nextToken, final String... associationArns) {
+        return ListRepositoryAssociationsResponse.builder()
+                .repositoryAssociationSummaries(Arrays.stream(associationArns)
+                        .map(associationArn -> RepositoryAssociationSummary.builder()
+                                .associationArn(associationArn)
+                                .state(RepositoryAssociationState.ASSOCIATED)
+                                .providerType(ProviderType.CODE_COMMIT)
+                                .build())
+                        .toArray(RepositoryAssociationSummary[]::new))
+                .nextToken(nextToken)
+                .build();
+    }
 }
@@ -0,0 +1,71 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class PrefetchingPaginatorTest {
+
+    @Test
+    public void next_FetchesFirstPageOnCallingThread() {
+        final Thread caller = Thread.currentThread();
+        final PrefetchingPaginator<Thread> paginator = new PrefetchingPaginator<>(token -> Thread.currentThread(), null);
+
+        assertThat(paginator.next()).isSameAs(caller);
+    }
+
+    @Test
+    public void prefetch_RunsWhileCallerContinues() throws InterruptedException {
+        final CountDownLatch callerDone = new CountDownLatch(1);
+        final PrefetchingPaginator<String> paginator = new PrefetchingPaginator<>(token -> {
+            if (token != null) {
+                try {
+                    // Only completes if the caller is not blocked on this page.
+                    assertThat(callerDone.await(5, TimeUnit.SECONDS)).isTrue();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "page:" + token;
+        }, null);
+
+        assertThat(paginator.next()).isEqualTo("page:null");
+        paginator.prefetch("token1");
+        callerDone.countDown();
+
+        assertThat(paginator.next()).isEqualTo("page:token1");
+    }
+
+    @Test
+    public void ofAsync_DoesNotWaitForFirstPage() {
+        final CompletableFuture<String> firstPage = new CompletableFuture<>();
+        final PrefetchingPaginator<String> paginator = PrefetchingPaginator.ofAsync(token -> token == null
+                ? firstPage : CompletableFuture.completedFuture("page:" + token), null);
+
+        firstPage.complete("page:null");
+        assertThat(paginator.next()).isEqualTo("page:null");
+        paginator.prefetch("token1");
+        assertThat(paginator.next()).isEqualTo("page:token1");
+    }
+
+    @Test
+    public void next_RethrowsErrorOfPrefetchedPage() {
+        final PrefetchingPaginator<String> paginator = new PrefetchingPaginator<>(token -> {
+            if (token != null) {
+                throw new CfnThrottlingException(ResourceModel.TYPE_NAME, null);
+            }
+            return "page";
+        }, null);
+
+        paginator.next();
+        paginator.prefetch("token1");
+
+        assertThatExceptionOfType(CfnThrottlingException.class).isThrownBy(paginator::next);
+    }
+}
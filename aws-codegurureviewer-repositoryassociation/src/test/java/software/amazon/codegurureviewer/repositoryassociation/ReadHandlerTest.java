@@ -33,6 +33,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -88,6 +90,54 @@ public class ReadHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void handleRequest_RejectedWhileCircuitOpen() {
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenThrow(InternalServerException.builder().build());
+        handler = new ReadHandler(HandlerSettings.builder()
+                .circuitBreakerFailureRatePercent(100)
+                .circuitBreakerWindowCalls(1)
+                .build());
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().associationArn("arn:test:test").build())
+                .build();
+
+        assertThatExceptionOfType(CfnServiceInternalErrorException.class).isThrownBy(() -> handler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger));
+        assertThatExceptionOfType(CircuitOpenException.class).isThrownBy(() -> handler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger));
+        verify(proxyClient.client()).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+    }
+
+    @Test
+    public void handleRequest_CachedReadSkipsDescribeUntilInvalidated() {
+        final DescribeRepositoryAssociationResponse describeRepositoryAssociationResponse =
+                DescribeRepositoryAssociationResponse.builder()
+                        .repositoryAssociation(RepositoryAssociation.builder().associationArn("arn:test:test")
+                                .state(RepositoryAssociationState.ASSOCIATED).providerType(ProviderType.CODE_COMMIT).build())
+                        .build();
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(describeRepositoryAssociationResponse);
+        handler = new ReadHandler(HandlerSettings.builder()
+                .readCacheTtl(Duration.ofMinutes(1L))
+                .readCacheMaxEntries(10)
+                .build());
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().associationArn("arn:test:test").build())
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> first = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> second = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
+        handler.invalidateReadCache(request.getDesiredResourceState());
+        handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        assertThat(second.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(second.getResourceModel()).isEqualTo(first.getResourceModel());
+        verify(proxyClient.client(), times(2)).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+    }
+
     @Test
     public void handleRequest_exceptions() {
         final ResourceModel model = ResourceModel.builder()
@@ -0,0 +1,87 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadModelCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final ReadModelCache cache = new ReadModelCache(Duration.ofSeconds(30L), 2, clock::get);
+
+    @Test
+    public void get_ExpiresAfterTtl() {
+        cache.put(describe("arn:test:1"));
+
+        clock.addAndGet(29_999L);
+        assertThat(cache.get("arn:test:1")).isEqualTo(model("arn:test:1"));
+        clock.addAndGet(1L);
+        assertThat(cache.get("arn:test:1")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void get_ReturnsModelsTheCallerMayChange() {
+        cache.put(describe("arn:test:1"));
+
+        cache.get("arn:test:1").setName("changed");
+
+        assertThat(cache.get("arn:test:1")).isEqualTo(model("arn:test:1"));
+    }
+
+    @Test
+    public void put_EvictsLeastRecentlyRead() {
+        cache.put(describe("arn:test:1"));
+        cache.put(describe("arn:test:2"));
+        cache.get("arn:test:1");
+
+        cache.put(describe("arn:test:3"));
+
+        assertThat(cache.get("arn:test:2")).isNull();
+        assertThat(cache.get("arn:test:1")).isNotNull();
+        assertThat(cache.get("arn:test:3")).isNotNull();
+    }
+
+    @Test
+    public void invalidate_DropsEntry() {
+        cache.put(describe("arn:test:1"));
+
+        cache.invalidate("arn:test:1");
+        cache.invalidate(null);
+
+        assertThat(cache.get("arn:test:1")).isNull();
+    }
+
+    @Test
+    public void shared_DisabledByDefault() {
+        final ReadModelCache disabled = ReadModelCache.shared(HandlerSettings.builder().build());
+
+        disabled.put(describe("arn:test:1"));
+
+        assertThat(disabled.get("arn:test:1")).isNull();
+    }
+
+    private static DescribeRepositoryAssociationResponse describe(final String associationArn) {
+        return DescribeRepositoryAssociationResponse.builder()
+                .repositoryAssociation(RepositoryAssociation.builder()
+                        .associationArn(associationArn)
+                        .name("repository")
+                        .providerType(ProviderType.CODE_COMMIT)
+                        .build())
+                .build();
+    }
+
+    private static ResourceModel model(final String associationArn) {
+        return ResourceModel.builder()
+                .associationArn(associationArn)
+                .name("repository")
+                .type(ProviderType.CODE_COMMIT.toString())
+                .build();
+    }
+}
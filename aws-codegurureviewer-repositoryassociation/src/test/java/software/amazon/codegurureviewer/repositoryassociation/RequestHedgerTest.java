@@ -0,0 +1,112 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class RequestHedgerTest {
+
+    private final List<String> metrics = new CopyOnWriteArrayList<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    public void call_HedgeAnswersWhenPrimaryIsSlow() {
+        final RequestHedger hedger = trained(100);
+        calls.set(0);
+
+        final String result = hedger.call(() -> calls.incrementAndGet() == 1 ? awaitRelease("primary") : "hedge",
+                metrics::add);
+        release.countDown();
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(hedger.getHedgesFired()).isEqualTo(1L);
+        assertThat(hedger.getHedgesWon()).isEqualTo(1L);
+        assertThat(metrics).hasSize(1);
+        assertThat(metrics.get(0)).contains("\"Region\":\"us-east-1\"", "\"HedgeFired\":1", "\"HedgeWon\":1");
+    }
+
+    @Test
+    public void call_NoHedgeUntilLatenciesAreKnown() {
+        final RequestHedger hedger = new RequestHedger("us-east-1", 100, System::currentTimeMillis);
+
+        assertThat(hedger.call(() -> sleep(20L, "result"), metrics::add)).isEqualTo("result");
+
+        assertThat(hedger.getHedgesFired()).isZero();
+        assertThat(metrics).isEmpty();
+    }
+
+    @Test
+    public void call_BudgetCapsHedges() {
+        // Twenty calls at 5% earn exactly one hedge.
+        final RequestHedger hedger = trained(5);
+
+        hedger.call(() -> sleep(20L, "result"), metrics::add);
+        hedger.call(() -> sleep(20L, "result"), metrics::add);
+
+        assertThat(hedger.getHedgesFired()).isEqualTo(1L);
+        assertThat(metrics).hasSize(1);
+    }
+
+    @Test
+    public void call_PrimaryErrorWhenBothFail() {
+        final RequestHedger hedger = trained(100);
+        calls.set(0);
+
+        assertThatExceptionOfType(InternalServerException.class).isThrownBy(() -> hedger.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(50L, null);
+                throw InternalServerException.builder().build();
+            }
+            throw ThrottlingException.builder().build();
+        }, metrics::add));
+
+        assertThat(hedger.getHedgesFired()).isEqualTo(1L);
+        assertThat(hedger.getHedgesWon()).isZero();
+        assertThat(metrics).hasSize(1);
+        assertThat(metrics.get(0)).contains("\"HedgeWon\":0");
+    }
+
+    @Test
+    public void forRegion_DisabledCallsOnCallingThread() {
+        final RequestHedger hedger = RequestHedger.forRegion("us-east-1", HandlerSettings.builder().build());
+
+        assertThat(hedger.call(Thread::currentThread, metrics::add)).isSameAs(Thread.currentThread());
+    }
+
+    private RequestHedger trained(final int budgetPercent) {
+        final RequestHedger hedger = new RequestHedger("us-east-1", budgetPercent, System::currentTimeMillis);
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            hedger.call(() -> "warm-up", metrics::add);
+        }
+        return hedger;
+    }
+
+    private String awaitRelease(final String result) {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private static String sleep(final long millis, final String result) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RetryBudgetTest {
+
+    private static final RetryPolicyContext CONTEXT = RetryPolicyContext.builder().build();
+
+    @Test
+    public void shouldRetry_UntilBudgetIsSpent() {
+        final RetryBudget budget = new RetryBudget(2, () -> 0L);
+
+        assertThat(budget.shouldRetry(CONTEXT)).isTrue();
+        assertThat(budget.shouldRetry(CONTEXT)).isTrue();
+        assertThat(budget.shouldRetry(CONTEXT)).isFalse();
+        assertThat(budget.remaining()).isZero();
+    }
+
+    @Test
+    public void shouldRetry_RefillsOverTime() {
+        final AtomicLong clock = new AtomicLong();
+        final RetryBudget budget = new RetryBudget(2, clock::get);
+        budget.shouldRetry(CONTEXT);
+        budget.shouldRetry(CONTEXT);
+
+        clock.addAndGet(RetryBudget.REFILL_PERIOD.toNanos() / 2);
+
+        assertThat(budget.remaining()).isEqualTo(1);
+        assertThat(budget.shouldRetry(CONTEXT)).isTrue();
+        assertThat(budget.shouldRetry(CONTEXT)).isFalse();
+
+        clock.addAndGet(RetryBudget.REFILL_PERIOD.toNanos() * 10);
+
+        assertThat(budget.remaining()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRetry_EmptyBudgetNeverRetries() {
+        final AtomicLong clock = new AtomicLong();
+        final RetryBudget budget = new RetryBudget(0, clock::get);
+
+        clock.addAndGet(RetryBudget.REFILL_PERIOD.toNanos());
+
+        assertThat(budget.shouldRetry(CONTEXT)).isFalse();
+    }
+}
@@ -0,0 +1,127 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void execute_ConcurrentCallersShareOneCall() throws Exception {
+        final CountDownLatch inCall = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("arn", () -> {
+            calls.incrementAndGet();
+            inCall.countDown();
+            await(release);
+            return "result";
+        }));
+        assertThat(inCall.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final AtomicReference<String> followerResult = new AtomicReference<>();
+        final Thread follower = startAndWaitUntilBlocked(() -> followerResult.set(singleFlight.execute("arn", () -> {
+            calls.incrementAndGet();
+            return "other";
+        })));
+        release.countDown();
+        follower.join(5000L);
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(followerResult).hasValue("result");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    public void execute_FollowersGetLeadersError() throws Exception {
+        final CountDownLatch inCall = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("arn", () -> {
+            inCall.countDown();
+            await(release);
+            throw new CfnThrottlingException(ResourceModel.TYPE_NAME, null);
+        }));
+        assertThat(inCall.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final AtomicReference<Throwable> followerError = new AtomicReference<>();
+        final Thread follower = startAndWaitUntilBlocked(() -> {
+            try {
+                singleFlight.execute("arn", () -> "other");
+            } catch (final RuntimeException e) {
+                followerError.set(e);
+            }
+        });
+        release.countDown();
+        follower.join(5000L);
+
+        assertThat(followerError.get()).isInstanceOf(CfnThrottlingException.class);
+        assertThatExceptionOfType(Exception.class).isThrownBy(() -> leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void execute_FollowersGetLeadersErrorEvenIfNotAnException() throws Exception {
+        final CountDownLatch inCall = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("arn", () -> {
+            inCall.countDown();
+            await(release);
+            throw new LinkageError("class not loadable");
+        }));
+        assertThat(inCall.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final AtomicReference<Throwable> followerError = new AtomicReference<>();
+        final Thread follower = startAndWaitUntilBlocked(() -> {
+            try {
+                singleFlight.execute("arn", () -> "other");
+            } catch (final LinkageError e) {
+                followerError.set(e);
+            }
+        });
+        release.countDown();
+        follower.join(5000L);
+
+        assertThat(follower.isAlive()).isFalse();
+        assertThat(followerError.get()).isInstanceOf(LinkageError.class);
+        assertThatExceptionOfType(Exception.class).isThrownBy(() -> leader.get(5, TimeUnit.SECONDS));
+        assertThat(singleFlight.execute("arn", () -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    public void execute_SequentialCallsAreNotShared() {
+        assertThat(singleFlight.execute("arn", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.execute("arn", () -> "second")).isEqualTo("second");
+        assertThat(singleFlight.execute("other", () -> "third")).isEqualTo("third");
+    }
+
+    /**
+     * Starts the caller and returns once it is parked waiting for the call in flight.
+     */
+    private static Thread startAndWaitUntilBlocked(final Runnable caller) throws InterruptedException {
+        final Thread thread = new Thread(caller);
+        thread.start();
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+        return thread;
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilizationDelayTest {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(5L);
+
+    @Test
+    public void nextDelay_FirstProbeIsShort() {
+        final StabilizationDelay delay = StabilizationDelay.forState(RepositoryAssociationState.ASSOCIATING,
+                ProviderType.CODE_COMMIT, TIMEOUT).toBuilder().jitter(0d).build();
+
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(2L));
+        assertThat(delay.nextDelay(2)).isEqualTo(Duration.ofSeconds(3L));
+        // 4.5 seconds, rounded to whole seconds
+        assertThat(delay.nextDelay(3)).isEqualTo(Duration.ofSeconds(5L));
+    }
+
+    @Test
+    public void nextDelay_BacksOffExponentiallyUpToCap() {
+        final StabilizationDelay delay = StabilizationDelay.builder()
+                .firstDelay(Duration.ofSeconds(1L))
+                .baseDelay(Duration.ofSeconds(2L))
+                .multiplier(2d)
+                .maxDelay(Duration.ofSeconds(10L))
+                .timeout(TIMEOUT)
+                .jitter(0d)
+                .build();
+
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(1L));
+        assertThat(delay.nextDelay(2)).isEqualTo(Duration.ofSeconds(2L));
+        assertThat(delay.nextDelay(3)).isEqualTo(Duration.ofSeconds(4L));
+        assertThat(delay.nextDelay(4)).isEqualTo(Duration.ofSeconds(8L));
+        assertThat(delay.nextDelay(5)).isEqualTo(Duration.ofSeconds(10L));
+        assertThat(delay.nextDelay(20)).isEqualTo(Duration.ofSeconds(10L));
+    }
+
+    @Test
+    public void nextDelay_ZeroOnceTimeoutIsReached() {
+        final StabilizationDelay delay = StabilizationDelay.builder()
+                .firstDelay(Duration.ofSeconds(5L))
+                .baseDelay(Duration.ofSeconds(5L))
+                .multiplier(1d)
+                .maxDelay(Duration.ofSeconds(5L))
+                .timeout(Duration.ofSeconds(10L))
+                .jitter(0d)
+                .build();
+
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(5L));
+        assertThat(delay.nextDelay(2)).isEqualTo(Duration.ofSeconds(5L));
+        assertThat(delay.nextDelay(3)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void nextDelay_JitterStaysWithinBounds() {
+        final StabilizationDelay delay = StabilizationDelay.builder()
+                .firstDelay(Duration.ofSeconds(10L))
+                .baseDelay(Duration.ofSeconds(10L))
+                .multiplier(1d)
+                .maxDelay(Duration.ofSeconds(10L))
+                .timeout(TIMEOUT)
+                .jitter(0.5d)
+                .build();
+
+        for (int attempt = 1; attempt < 20; attempt++) {
+            assertThat(delay.nextDelay(attempt)).isBetween(Duration.ofSeconds(5L), Duration.ofSeconds(15L));
+        }
+    }
+
+    @Test
+    public void nextDelay_NeverShorterThanOneSecond() {
+        final StabilizationDelay delay = StabilizationDelay.builder()
+                .firstDelay(Duration.ofMillis(100L))
+                .baseDelay(Duration.ofMillis(100L))
+                .multiplier(1d)
+                .maxDelay(Duration.ofMillis(100L))
+                .timeout(TIMEOUT)
+                .build();
+
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(1L));
+    }
+
+    @Test
+    public void forTransientErrors_BacksOffFasterThanStateSchedules() {
+        final StabilizationDelay transientErrors = StabilizationDelay.forTransientErrors().toBuilder().jitter(0d).build();
+
+        assertThat(transientErrors.nextDelay(1)).isEqualTo(Duration.ofSeconds(1L));
+        assertThat(transientErrors.nextDelay(2)).isEqualTo(Duration.ofSeconds(2L));
+        assertThat(transientErrors.nextDelay(3)).isEqualTo(Duration.ofSeconds(4L));
+        assertThat(transientErrors.nextDelay(10)).isEqualTo(Duration.ofSeconds(20L));
+    }
+
+    @Test
+    public void forState_SchedulesDependOnStateAndProvider() {
+        final StabilizationDelay codeCommit = StabilizationDelay.forState(RepositoryAssociationState.ASSOCIATING,
+                ProviderType.CODE_COMMIT, TIMEOUT);
+        final StabilizationDelay unknown = StabilizationDelay.forState(RepositoryAssociationState.ASSOCIATING,
+                null, TIMEOUT);
+        final StabilizationDelay bitbucket = StabilizationDelay.forState(RepositoryAssociationState.ASSOCIATING,
+                ProviderType.BITBUCKET, TIMEOUT);
+        final StabilizationDelay gitHubEnterprise = StabilizationDelay.forState(
+                RepositoryAssociationState.ASSOCIATING, ProviderType.GIT_HUB_ENTERPRISE_SERVER, TIMEOUT);
+        final StabilizationDelay disassociating = StabilizationDelay.forState(
+                RepositoryAssociationState.DISASSOCIATING, ProviderType.BITBUCKET, TIMEOUT);
+
+        assertThat(codeCommit.getFirstDelay()).isEqualTo(unknown.getFirstDelay());
+        assertThat(codeCommit.getMaxDelay()).isEqualTo(unknown.getMaxDelay());
+        assertThat(bitbucket.getFirstDelay()).isGreaterThan(codeCommit.getFirstDelay());
+        assertThat(bitbucket.getMaxDelay()).isGreaterThan(codeCommit.getMaxDelay());
+        assertThat(gitHubEnterprise.getMaxDelay()).isEqualTo(bitbucket.getMaxDelay());
+        assertThat(disassociating.getMaxDelay()).isLessThan(bitbucket.getMaxDelay());
+        assertThat(disassociating.getTimeout()).isEqualTo(TIMEOUT);
+    }
+}
@@ -0,0 +1,135 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerAsyncClient;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TagEnricherTest extends AbstractTestBase {
+
+    private CodeGuruReviewerClient sdkClient;
+    private ProxyClient<CodeGuruReviewerClient> proxyClient;
+    private CodeGuruReviewerAsyncClient asyncSdkClient;
+    private ProxyClient<CodeGuruReviewerAsyncClient> asyncProxyClient;
+    private TagEnricher tagEnricher;
+
+    @BeforeEach
+    public void setup() {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS,
+                () -> Duration.ofSeconds(600).toMillis());
+        sdkClient = mock(CodeGuruReviewerClient.class);
+        proxyClient = MOCK_PROXY(proxy, sdkClient);
+        asyncSdkClient = mock(CodeGuruReviewerAsyncClient.class);
+        asyncProxyClient = MOCK_ASYNC_PROXY(proxy, asyncSdkClient);
+        tagEnricher = new TagEnricher(HandlerSettings.builder()
+                .listTagConcurrency(2)
+                .listTagRequestsPerSecond(100)
+                .build(), logger);
+    }
+
+    @Test
+    public void enrich_AddsTagsToEveryModel() {
+        when(sdkClient.listTagsForResource(argThat((ListTagsForResourceRequest request) ->
+                request != null && "arn:test:test1".equals(request.resourceArn()))))
+                .thenReturn(ListTagsForResourceResponse.builder().tags(ImmutableMap.of("key", "value1")).build());
+        when(sdkClient.listTagsForResource(argThat((ListTagsForResourceRequest request) ->
+                request != null && "arn:test:test2".equals(request.resourceArn()))))
+                .thenReturn(ListTagsForResourceResponse.builder().build());
+        when(sdkClient.listTagsForResource(argThat((ListTagsForResourceRequest request) ->
+                request != null && "arn:test:test3".equals(request.resourceArn()))))
+                .thenThrow(ResourceNotFoundException.builder().build());
+
+        final List<ResourceModel> models = Arrays.asList(
+                ResourceModel.builder().associationArn("arn:test:test1").build(),
+                ResourceModel.builder().associationArn("arn:test:test2").build(),
+                ResourceModel.builder().associationArn("arn:test:test3").build());
+
+        final List<ResourceModel> enriched = tagEnricher.enrich(models, proxyClient);
+
+        // The third association is gone, so it is left out rather than returned without its tags.
+        assertThat(enriched).containsExactly(models.get(0), models.get(1));
+        assertThat(models.get(0).getTags()).containsExactly(new Tag("key", "value1"));
+        assertThat(models.get(1).getTags()).isNull();
+        verify(sdkClient, times(3)).listTagsForResource(any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void enrich_NothingToDo() {
+        assertThat(tagEnricher.enrich(Collections.emptyList(), proxyClient)).isEmpty();
+        verify(sdkClient, never()).listTagsForResource(any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void enrichAsync_AddsTagsToEveryModel() {
+        final CompletableFuture<ListTagsForResourceResponse> notFound = new CompletableFuture<>();
+        notFound.completeExceptionally(ResourceNotFoundException.builder().build());
+        when(asyncSdkClient.listTagsForResource(argThat((ListTagsForResourceRequest request) ->
+                request != null && "arn:test:test1".equals(request.resourceArn()))))
+                .thenReturn(CompletableFuture.completedFuture(
+                        ListTagsForResourceResponse.builder().tags(ImmutableMap.of("key", "value1")).build()));
+        when(asyncSdkClient.listTagsForResource(argThat((ListTagsForResourceRequest request) ->
+                request != null && "arn:test:test2".equals(request.resourceArn()))))
+                .thenReturn(notFound);
+
+        final List<ResourceModel> models = Arrays.asList(
+                ResourceModel.builder().associationArn("arn:test:test1").build(),
+                ResourceModel.builder().associationArn("arn:test:test2").build());
+
+        final List<ResourceModel> enriched = tagEnricher.enrichAsync(models, asyncProxyClient).join();
+
+        assertThat(enriched).containsExactly(models.get(0));
+        assertThat(models.get(0).getTags()).containsExactly(new Tag("key", "value1"));
+    }
+
+    @Test
+    public void enrichAsync_Throttled() {
+        final CompletableFuture<ListTagsForResourceResponse> throttled = new CompletableFuture<>();
+        throttled.completeExceptionally(ThrottlingException.builder().build());
+        when(asyncSdkClient.listTagsForResource(any(ListTagsForResourceRequest.class))).thenReturn(throttled);
+
+        final CompletableFuture<List<ResourceModel>> enriched = tagEnricher.enrichAsync(
+                Collections.singletonList(ResourceModel.builder().associationArn("arn:test:test1").build()),
+                asyncProxyClient);
+
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(enriched::join)
+                .withCauseInstanceOf(CfnThrottlingException.class);
+    }
+
+    @Test
+    public void enrich_Throttled() {
+        when(sdkClient.listTagsForResource(any(ListTagsForResourceRequest.class)))
+                .thenThrow(ThrottlingException.builder().build());
+
+        assertThatExceptionOfType(CfnThrottlingException.class).isThrownBy(() -> tagEnricher.enrich(
+                Collections.singletonList(ResourceModel.builder().associationArn("arn:test:test1").build()),
+                proxyClient));
+    }
+}
@@ -0,0 +1,50 @@
+package software.amazon.codegurureviewer.repositoryassociation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class TokenBucketTest {
+
+    @Test
+    public void reserve_BurstUpToCapacityWithoutWaiting() {
+        final TokenBucket bucket = new TokenBucket(1d, 3d);
+
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(900L));
+    }
+
+    @Test
+    public void reserve_WaitingCallersQueueUp() {
+        final TokenBucket bucket = new TokenBucket(10d, 1d);
+
+        bucket.reserve();
+        final long first = bucket.reserve();
+        final long second = bucket.reserve();
+
+        assertThat(second - first).isBetween(TimeUnit.MILLISECONDS.toNanos(90L), TimeUnit.MILLISECONDS.toNanos(110L));
+    }
+
+    @Test
+    public void acquire_WaitsForRefill() {
+        final TokenBucket bucket = new TokenBucket(20d, 1d);
+        final long start = System.nanoTime();
+
+        bucket.acquire();
+        bucket.acquire();
+        bucket.acquire();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(90L));
+    }
+
+    @Test
+    public void constructor_RejectsInvalidRate() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new TokenBucket(0d, 1d));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new TokenBucket(1d, 0d));
+    }
+}
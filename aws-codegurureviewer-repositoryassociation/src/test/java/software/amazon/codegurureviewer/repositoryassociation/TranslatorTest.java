@@ -14,8 +14,11 @@ import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAsso
 import software.amazon.awssdk.services.codegurureviewer.model.ListRepositoryAssociationsResponse;
 import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationState;
 import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociationSummary;
 import software.amazon.awssdk.services.codegurureviewer.model.S3RepositoryDetails;
+import software.amazon.awssdk.services.codegurureviewer.model.TagResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.UntagResourceRequest;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 
 import java.util.ArrayList;
@@ -101,6 +104,34 @@ public class TranslatorTest {
         assertNotNull(associateRepositoryRequest.tags());
     }
 
+    @Test
+    public void translateToAssociateRepositoryRequest_WithClientRequestToken() {
+        final String clientRequestToken = "3f1a0b2c-5d6e-4f70-8a9b-0c1d2e3f4a5b";
+
+        final AssociateRepositoryRequest request = Translator.translateToAssociateRepositoryRequest(
+                ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).name(REPO_NAME).build(),
+                clientRequestToken);
+
+        assertThat(request.clientRequestToken()).isEqualTo(clientRequestToken);
+        assertThat(Translator.translateToAssociateRepositoryRequest(
+                ResourceModel.builder().type(ProviderType.CODE_COMMIT.toString()).build()).clientRequestToken())
+                .isNull();
+    }
+
+    @Test
+    public void toIdempotencyToken() {
+        final String invalidToken = "token with spaces and a length over sixty four characters, e.g. 0123456789";
+
+        assertThat(Translator.toIdempotencyToken(null)).isNull();
+        assertThat(Translator.toIdempotencyToken("")).isNull();
+        assertThat(Translator.toIdempotencyToken("valid_token-1")).isEqualTo("valid_token-1");
+        assertThat(Translator.toIdempotencyToken(invalidToken))
+                .isEqualTo(Translator.toIdempotencyToken(invalidToken))
+                .matches("^[\\w-]{1,64}$");
+        assertThat(Translator.toIdempotencyToken(invalidToken))
+                .isNotEqualTo(Translator.toIdempotencyToken(invalidToken + "1"));
+    }
+
     @Test
     public void translateToAssociateRepositoryRequest_InValidRepositories() {
         assertThatExceptionOfType(CfnInvalidRequestException.class)
@@ -183,6 +214,49 @@ public class TranslatorTest {
                 .isEqualToComparingFieldByField(request);
     }
 
+    @Test
+    public void translateToListRepositoryAssociationsRequest_WithFilters() {
+        final ResourceModel model = ResourceModel.builder()
+                .associationArn(ASSOCIATION_ARN)
+                .name(REPO_NAME)
+                .type(ProviderType.BITBUCKET.toString())
+                .owner(OWNER)
+                .build();
+
+        final ListRepositoryAssociationsRequest request =
+                Translator.translateToListRepositoryAssociationsRequest(model, "nextToken", 25);
+
+        assertThat(request.names()).containsExactly(REPO_NAME);
+        assertThat(request.providerTypes()).containsExactly(ProviderType.BITBUCKET);
+        assertThat(request.owners()).containsExactly(OWNER);
+        assertThat(request.maxResults()).isEqualTo(25);
+        assertThat(request.nextToken()).isEqualTo("nextToken");
+        assertThat(request.hasStates()).isFalse();
+    }
+
+    @Test
+    public void translateToListRepositoryAssociationsRequest_WithoutFilters() {
+        final ListRepositoryAssociationsRequest request = Translator.translateToListRepositoryAssociationsRequest(
+                ResourceModel.builder().build(), null, 0);
+
+        assertThat(request.hasNames()).isFalse();
+        assertThat(request.hasProviderTypes()).isFalse();
+        assertThat(request.hasOwners()).isFalse();
+        assertThat(request.maxResults()).isNull();
+    }
+
+    @Test
+    public void translateToListTransitionalAssociationsRequest() {
+        final ListRepositoryAssociationsRequest request =
+                Translator.translateToListTransitionalAssociationsRequest("nextToken");
+
+        assertThat(request.states()).containsExactly(RepositoryAssociationState.ASSOCIATING,
+                RepositoryAssociationState.DISASSOCIATING);
+        assertThat(request.maxResults()).isEqualTo(100);
+        assertThat(request.nextToken()).isEqualTo("nextToken");
+        assertThat(request.hasNames()).isFalse();
+    }
+
     @Test
     public void translateFromListRepositoryAssocationResponseTest() {
         final RepositoryAssociationSummary summary1 = RepositoryAssociationSummary.builder()
@@ -229,4 +303,49 @@ public class TranslatorTest {
         assertThat(result.size()).isEqualTo(0);
     }
 
+    @Test
+    public void getTagDiff() {
+        final ResourceModel previousModel = ResourceModel.builder()
+                .tags(Arrays.asList(new Tag("kept", "value"), new Tag("changed", "old"), new Tag("removed", "value")))
+                .build();
+        final ResourceModel desiredModel = ResourceModel.builder()
+                .tags(Arrays.asList(new Tag("kept", "value"), new Tag("changed", "new"), new Tag("added", "value")))
+                .build();
+
+        assertThat(Translator.getTagsToAdd(previousModel, desiredModel))
+                .isEqualTo(ImmutableMap.of("changed", "new", "added", "value"));
+        assertThat(Translator.getTagKeysToRemove(previousModel, desiredModel)).containsExactly("removed");
+    }
+
+    @Test
+    public void getTagDiff_WithoutPreviousModel() {
+        final ResourceModel desiredModel = ResourceModel.builder().tags(TAGS).build();
+
+        assertThat(Translator.getTagsToAdd(null, desiredModel)).isEqualTo(TAGS_MAP);
+        assertThat(Translator.getTagKeysToRemove(null, desiredModel)).isEmpty();
+        assertThat(Translator.getTagKeysToRemove(desiredModel, ResourceModel.builder().build()))
+                .containsExactlyInAnyOrder("key1", "key2");
+    }
+
+    @Test
+    public void getTagDiff_TagWithoutValue() {
+        final ResourceModel desiredModel = ResourceModel.builder().tags(Arrays.asList(new Tag("key1", null))).build();
+
+        assertThatExceptionOfType(CfnInvalidRequestException.class)
+                .isThrownBy(() -> Translator.getTagsToAdd(null, desiredModel));
+    }
+
+    @Test
+    public void translateToTagRequests() {
+        final ResourceModel model = ResourceModel.builder().associationArn(ASSOCIATION_ARN).build();
+
+        final TagResourceRequest tagResourceRequest = Translator.translateToTagResourceRequest(model, TAGS_MAP);
+        final UntagResourceRequest untagResourceRequest =
+                Translator.translateToUntagResourceRequest(model, TAGS_MAP.keySet());
+
+        assertThat(tagResourceRequest.resourceArn()).isEqualTo(ASSOCIATION_ARN);
+        assertThat(tagResourceRequest.tags()).isEqualTo(TAGS_MAP);
+        assertThat(untagResourceRequest.resourceArn()).isEqualTo(ASSOCIATION_ARN);
+        assertThat(untagResourceRequest.tagKeys()).containsExactlyInAnyOrder("key1", "key2");
+    }
 }
@@ -1,54 +1,229 @@
 package software.amazon.codegurureviewer.repositoryassociation;
 
-import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
-import software.amazon.cloudformation.proxy.Logger;
-import software.amazon.cloudformation.proxy.OperationStatus;
-import software.amazon.cloudformation.proxy.ProgressEvent;
-import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.codegurureviewer.CodeGuruReviewerClient;
+import software.amazon.awssdk.services.codegurureviewer.model.AccessDeniedException;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.DescribeRepositoryAssociationResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.InternalServerException;
+import software.amazon.awssdk.services.codegurureviewer.model.NotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.ProviderType;
+import software.amazon.awssdk.services.codegurureviewer.model.RepositoryAssociation;
+import software.amazon.awssdk.services.codegurureviewer.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.codegurureviewer.model.TagResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.TagResourceResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ThrottlingException;
+import software.amazon.awssdk.services.codegurureviewer.model.UntagResourceRequest;
+import software.amazon.awssdk.services.codegurureviewer.model.UntagResourceResponse;
+import software.amazon.awssdk.services.codegurureviewer.model.ValidationException;
+import software.amazon.cloudformation.exceptions.CfnAccessDeniedException;
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
-public class UpdateHandlerTest {
+public class UpdateHandlerTest extends AbstractTestBase {
+
+    private static final String ASSOCIATION_ARN = "arn:aws:codeguru-reviewer:us-west-2:123456789012:association:test";
 
     @Mock
     private AmazonWebServicesClientProxy proxy;
 
     @Mock
-    private Logger logger;
+    private ProxyClient<CodeGuruReviewerClient> proxyClient;
+
+    @Mock
+    CodeGuruReviewerClient sdkClient;
+
+    private UpdateHandler handler;
 
     @BeforeEach
     public void setup() {
-        proxy = mock(AmazonWebServicesClientProxy.class);
-        logger = mock(Logger.class);
+        handler = new UpdateHandler();
+        proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        sdkClient = mock(CodeGuruReviewerClient.class);
+        proxyClient = MOCK_PROXY(proxy, sdkClient);
     }
 
     @Test
     public void handleRequest_SimpleSuccess() {
-        final UpdateHandler handler = new UpdateHandler();
+        when(proxyClient.client().untagResource(any(UntagResourceRequest.class)))
+                .thenReturn(UntagResourceResponse.builder().build());
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
+                .thenReturn(TagResourceResponse.builder().build());
 
-        final ResourceModel model = ResourceModel.builder().build();
+        final ResourceModel previousModel = ResourceModel.builder()
+                .associationArn(ASSOCIATION_ARN)
+                .name("CodeCommit")
+                .type(ProviderType.CODE_COMMIT.toString())
+                .tags(Arrays.asList(new Tag("kept", "value"), new Tag("changed", "old"), new Tag("removed", "value")))
+                .build();
+        final ResourceModel model = ResourceModel.builder()
+                .name("CodeCommit")
+                .type(ProviderType.CODE_COMMIT.toString())
+                .tags(Arrays.asList(new Tag("kept", "value"), new Tag("changed", "new"), new Tag("added", "value")))
+                .build();
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
-            .desiredResourceState(model)
-            .build();
+                .previousResourceState(previousModel)
+                .desiredResourceState(model)
+                .build();
 
-        final ProgressEvent<ResourceModel, CallbackContext> response
-            = handler.handleRequest(proxy, request, null, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
 
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
-        assertThat(response.getCallbackContext()).isNull();
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
+        assertThat(response.getResourceModel().getAssociationArn()).isEqualTo(ASSOCIATION_ARN);
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+
+        final ArgumentCaptor<UntagResourceRequest> untagResourceRequest =
+                ArgumentCaptor.forClass(UntagResourceRequest.class);
+        verify(proxyClient.client()).untagResource(untagResourceRequest.capture());
+        assertThat(untagResourceRequest.getValue().resourceArn()).isEqualTo(ASSOCIATION_ARN);
+        assertThat(untagResourceRequest.getValue().tagKeys()).containsExactly("removed");
+
+        final ArgumentCaptor<TagResourceRequest> tagResourceRequest = ArgumentCaptor.forClass(TagResourceRequest.class);
+        verify(proxyClient.client()).tagResource(tagResourceRequest.capture());
+        assertThat(tagResourceRequest.getValue().resourceArn()).isEqualTo(ASSOCIATION_ARN);
+        assertThat(tagResourceRequest.getValue().tags())
+                .hasSize(2)
+                .containsEntry("changed", "new")
+                .containsEntry("added", "value");
+        verify(proxyClient.client(), never()).describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class));
+    }
+
+    @Test
+    public void handleRequest_OnlyAddTags() {
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class)))
+                .thenReturn(TagResourceResponse.builder().build());
+
+        final ResourceModel previousModel = ResourceModel.builder().associationArn(ASSOCIATION_ARN).build();
+        final ResourceModel model = ResourceModel.builder()
+                .associationArn(ASSOCIATION_ARN)
+                .tags(Collections.singletonList(new Tag("key", "value")))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .previousResourceState(previousModel)
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxyClient.client()).tagResource(any(TagResourceRequest.class));
+        verify(proxyClient.client(), never()).untagResource(any(UntagResourceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_NoTagChangesReadsAssociation() {
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenReturn(DescribeRepositoryAssociationResponse.builder()
+                        .repositoryAssociation(RepositoryAssociation.builder()
+                                .associationArn(ASSOCIATION_ARN)
+                                .name("CodeCommit")
+                                .providerType(ProviderType.CODE_COMMIT)
+                                .build())
+                        .build());
+
+        final ResourceModel model = ResourceModel.builder()
+                .associationArn(ASSOCIATION_ARN)
+                .name("CodeCommit")
+                .type(ProviderType.CODE_COMMIT.toString())
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .previousResourceState(model)
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isEqualTo(model);
+        verify(proxyClient.client(), never()).tagResource(any(TagResourceRequest.class));
+        verify(proxyClient.client(), never()).untagResource(any(UntagResourceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_NoTagChangesNotFound() {
+        when(proxyClient.client().describeRepositoryAssociation(any(DescribeRepositoryAssociationRequest.class)))
+                .thenThrow(NotFoundException.builder().build());
+
+        final ResourceModel model = ResourceModel.builder().associationArn(ASSOCIATION_ARN).build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        assertThatExceptionOfType(CfnNotFoundException.class).isThrownBy(() -> handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger));
+    }
+
+    @Test
+    public void handleRequest_MissingAssociationArn() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().build())
+                .build();
+
+        assertThatExceptionOfType(CfnNotFoundException.class).isThrownBy(() -> handler.handleRequest(proxy, request,
+                new CallbackContext(), proxyClient, logger));
+    }
+
+    @Test
+    public void handleRequest_Exceptions() {
+        final ResourceModel model = ResourceModel.builder()
+                .associationArn(ASSOCIATION_ARN)
+                .tags(Collections.singletonList(new Tag("key", "value")))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class))).thenThrow(ResourceNotFoundException.class);
+        assertThatExceptionOfType(CfnNotFoundException.class).isThrownBy(() -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
+
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class))).thenThrow(InternalServerException.class);
+        assertThatExceptionOfType(CfnServiceInternalErrorException.class).isThrownBy(() -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
+
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class))).thenThrow(ValidationException.class);
+        assertThatExceptionOfType(CfnInvalidRequestException.class).isThrownBy(() -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
+
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class))).thenThrow(AccessDeniedException.class);
+        assertThatExceptionOfType(CfnAccessDeniedException.class).isThrownBy(() -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
+
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class))).thenThrow(ThrottlingException.class);
+        assertThatExceptionOfType(CfnThrottlingException.class).isThrownBy(() -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
+
+        when(proxyClient.client().tagResource(any(TagResourceRequest.class))).thenThrow(RuntimeException.class);
+        assertThatExceptionOfType(CfnInternalFailureException.class).isThrownBy(() -> handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
     }
 }